@@ -1,12 +1,34 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Generates bursty allocations and CPU work to compare pause behavior between
  * ZGC and G1. Logs progress so GC and runtime observations are repeatable.
+ * <p>
+ * {@code java LowLatencyApp slo [options]} turns the workload into a pause-time
+ * SLO harness: a fixed-rate request loop runs next to an allocator with a
+ * configurable live set, allocation rate and object lifetime mix, while a
+ * jHiccup-style sleeper measures how late the JVM wakes up. Request latency is
+ * measured from each request's intended start time, so a stall counts against
+ * every request scheduled during it. {@code run_gc_comparison.sh} runs the same
+ * scenario under each collector and tabulates the RESULT lines.
  */
 public class LowLatencyApp {
-    public static void main(String[] args) {
+    private static Object sink; // keeps short-lived objects from being scalar-replaced
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length > 0 && "slo".equals(args[0])) {
+            new SloHarness(parseOptions(args)).run();
+            return;
+        }
         System.out.println("Starting LowLatencyApp workload...");
         long end = System.currentTimeMillis() + 5 * 60 * 1000; // 5 mins
 
@@ -31,4 +53,305 @@ public class LowLatencyApp {
 
         System.out.println("LowLatencyApp finished.");
     }
+
+    /**
+     * Request loop, allocator and hiccup meter running side by side. Each thread
+     * owns its histogram and only records once the warmup has passed.
+     */
+    static final class SloHarness {
+        private final long seconds;
+        private final long warmupSeconds;
+        private final double requestRate;
+        private final int workIterations;
+        private final long liveSetBytes;
+        private final double allocMbPerSecond;
+        private final int objectBytes;
+        private final double mediumFraction;
+        private final long mediumLifetimeMillis;
+        private final double promoteFraction;
+        private final long hiccupResolutionNanos;
+
+        private volatile boolean stop;
+        private long measureStartNanos;
+
+        SloHarness(Map<String, String> options) {
+            seconds = Long.parseLong(options.getOrDefault("seconds", "60"));
+            warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "10"));
+            requestRate = Double.parseDouble(options.getOrDefault("rate", "1000"));
+            workIterations = Integer.parseInt(options.getOrDefault("work", "10000"));
+            liveSetBytes = Long.parseLong(options.getOrDefault("live-set-mb", "256")) * 1024 * 1024;
+            allocMbPerSecond = Double.parseDouble(options.getOrDefault("alloc-mb", "200"));
+            objectBytes = Integer.parseInt(options.getOrDefault("object-size", "1024"));
+            mediumFraction = Double.parseDouble(options.getOrDefault("medium-fraction", "0.05"));
+            mediumLifetimeMillis = Long.parseLong(options.getOrDefault("medium-lifetime-ms", "500"));
+            promoteFraction = Double.parseDouble(options.getOrDefault("promote-fraction", "0.001"));
+            hiccupResolutionNanos = Long.parseLong(options.getOrDefault("hiccup-ms", "1")) * 1_000_000;
+        }
+
+        void run() throws InterruptedException {
+            String collector = collectorName();
+            System.out.printf(Locale.ROOT, "===> LowLatencyApp SLO run: collector=%s, heap max=%d MB%n", collector,
+                    Runtime.getRuntime().maxMemory() / (1024 * 1024));
+            System.out.printf(Locale.ROOT, "Requests: %.0f/s, %d sqrt iterations each; warmup %d s, measured %d s%n",
+                    requestRate, workIterations, warmupSeconds, seconds);
+            System.out.printf(Locale.ROOT, "Heap load: live set %d MB, %.0f MB/s of %d-byte objects"
+                            + " (%.1f%% live ~%d ms, %.2f%% promoted into the live set, rest die young)%n",
+                    liveSetBytes / (1024 * 1024), allocMbPerSecond, objectBytes, 100 * mediumFraction,
+                    mediumLifetimeMillis, 100 * promoteFraction);
+
+            Object[] liveSet = new Object[(int) Math.max(1, liveSetBytes / objectBytes)];
+            for (int i = 0; i < liveSet.length; i++) {
+                liveSet[i] = new byte[objectBytes];
+            }
+            System.out.println("Live set populated: " + liveSet.length + " objects");
+
+            LatencyHistogram requestLatency = new LatencyHistogram();
+            LatencyHistogram hiccups = new LatencyHistogram();
+            long[] completed = new long[1];
+            long[] allocatedBytes = new long[1];
+
+            long start = System.nanoTime();
+            measureStartNanos = start + warmupSeconds * 1_000_000_000L;
+            long endNanos = measureStartNanos + seconds * 1_000_000_000L;
+            Thread requests = new Thread(() -> completed[0] = requestLoop(start, requestLatency), "slo-requests");
+            Thread allocator = new Thread(() -> allocatedBytes[0] = allocate(liveSet), "slo-allocator");
+            Thread hiccupMeter = new Thread(() -> measureHiccups(hiccups), "slo-hiccups");
+            requests.start();
+            allocator.start();
+            hiccupMeter.start();
+
+            LockSupport.parkNanos(Math.max(0, measureStartNanos - System.nanoTime()));
+            long gcCountBefore = gcCount();
+            long gcMillisBefore = gcPauseMillis();
+            System.out.println("Warmup done; recording.");
+            LockSupport.parkNanos(Math.max(0, endNanos - System.nanoTime()));
+            stop = true;
+            requests.join();
+            allocator.join();
+            hiccupMeter.join();
+            long gcCount = gcCount() - gcCountBefore;
+            long gcMillis = gcPauseMillis() - gcMillisBefore;
+
+            double throughput = completed[0] / (double) seconds;
+            double allocRate = allocatedBytes[0] / (double) seconds / (1024 * 1024);
+            System.out.println("Request latency (ms, from intended start):");
+            requestLatency.printPercentiles();
+            System.out.printf(Locale.ROOT, "Hiccups (ms beyond the %d ms sleep):%n", hiccupResolutionNanos / 1_000_000);
+            hiccups.printPercentiles();
+            System.out.printf(Locale.ROOT, "Throughput: %.1f req/s (target %.0f), allocation %.1f MB/s (target %.0f)%n",
+                    throughput, requestRate, allocRate, allocMbPerSecond);
+            System.out.printf(Locale.ROOT, "GC (pause collectors, MXBean): %d collections, %d ms%n", gcCount, gcMillis);
+            System.out.printf(Locale.ROOT,
+                    "RESULT collector=%s p50=%.3f p99=%.3f p999=%.3f max=%.3f throughput=%.1f alloc=%.1f"
+                            + " hiccup_p99=%.3f hiccup_max=%.3f gc_count=%d gc_ms=%d%n",
+                    collector.replace(' ', '_'), requestLatency.percentile(50) / 1000.0,
+                    requestLatency.percentile(99) / 1000.0, requestLatency.percentile(99.9) / 1000.0,
+                    requestLatency.maxMicros() / 1000.0, throughput, allocRate, hiccups.percentile(99) / 1000.0,
+                    hiccups.maxMicros() / 1000.0, gcCount, gcMillis);
+        }
+
+        /** Fixed-rate loop on a precomputed schedule; falls behind instead of skipping requests. */
+        private long requestLoop(long start, LatencyHistogram histogram) {
+            long periodNanos = (long) (1_000_000_000L / requestRate);
+            long completed = 0;
+            for (long i = 0; !stop; i++) {
+                long intended = start + i * periodNanos;
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                double acc = 0;
+                for (int k = 0; k < workIterations; k++) {
+                    acc += Math.sqrt(k);
+                }
+                sink = new double[] {acc}; // small per-request allocation, like a response object
+                long done = System.nanoTime();
+                if (intended >= measureStartNanos) {
+                    histogram.record((done - intended) / 1_000);
+                    completed++;
+                }
+            }
+            return completed;
+        }
+
+        /**
+         * Allocates in 10 ms ticks to hit the target rate. Most objects die
+         * immediately, a fraction survives for the medium lifetime in a ring buffer,
+         * and a smaller fraction replaces a random live-set entry (old-gen churn).
+         */
+        private long allocate(Object[] liveSet) {
+            SplittableRandom random = new SplittableRandom(42);
+            long tickNanos = 10_000_000L;
+            long bytesPerTick = (long) (allocMbPerSecond * 1024 * 1024 / 100);
+            double mediumPerSecond = allocMbPerSecond * 1024 * 1024 / objectBytes * mediumFraction;
+            Object[] medium = new Object[(int) Math.max(1, mediumPerSecond * mediumLifetimeMillis / 1000)];
+            int mediumCursor = 0;
+            long measuredBytes = 0;
+            long next = System.nanoTime();
+            while (!stop) {
+                long tickBytes = 0;
+                while (tickBytes < bytesPerTick) {
+                    byte[] object = new byte[objectBytes];
+                    double lifetime = random.nextDouble();
+                    if (lifetime < promoteFraction) {
+                        liveSet[random.nextInt(liveSet.length)] = object;
+                    } else if (lifetime < promoteFraction + mediumFraction) {
+                        medium[mediumCursor] = object;
+                        mediumCursor = (mediumCursor + 1) % medium.length;
+                    } else {
+                        sink = object;
+                    }
+                    tickBytes += objectBytes;
+                }
+                if (System.nanoTime() >= measureStartNanos) {
+                    measuredBytes += tickBytes;
+                }
+                next += tickNanos;
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else if (-wait > 100 * tickNanos) {
+                    next = System.nanoTime(); // cannot keep up; report the achieved rate instead of bursting
+                }
+            }
+            return measuredBytes;
+        }
+
+        /** jHiccup-style: sleep for a fixed interval and record how much later than expected we woke up. */
+        private void measureHiccups(LatencyHistogram histogram) {
+            while (!stop) {
+                long before = System.nanoTime();
+                LockSupport.parkNanos(hiccupResolutionNanos);
+                long after = System.nanoTime();
+                if (before >= measureStartNanos) {
+                    histogram.record(Math.max(0, after - before - hiccupResolutionNanos) / 1_000);
+                }
+            }
+        }
+    }
+
+    /** Single-writer log-linear histogram in microseconds (exact below 64 us, then 32 sub-buckets per power of two, ~3% precision). */
+    static final class LatencyHistogram {
+        private static final int SUB_BUCKET_BITS = 6;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int MAGNITUDES = 40;
+
+        private final long[] counts = new long[MAGNITUDES * SUB_BUCKETS];
+        private long total;
+        private long max;
+
+        void record(long micros) {
+            long value = Math.max(micros, 0);
+            counts[indexOf(value)]++;
+            total++;
+            max = Math.max(max, value);
+        }
+
+        long maxMicros() {
+            return max;
+        }
+
+        /** Value (in us) at the given percentile, reported as the bucket's upper bound. */
+        long percentile(double percentile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        void printPercentiles() {
+            System.out.printf(Locale.ROOT, "  p50=%.3f  p90=%.3f  p99=%.3f  p99.9=%.3f  p99.99=%.3f  max=%.3f  (n=%d)%n",
+                    percentile(50) / 1000.0, percentile(90) / 1000.0, percentile(99) / 1000.0,
+                    percentile(99.9) / 1000.0, percentile(99.99) / 1000.0, max / 1000.0, total);
+        }
+
+        private static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int magnitude = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+            if (magnitude >= MAGNITUDES) {
+                return MAGNITUDES * SUB_BUCKETS - 1;
+            }
+            int subBucket = (int) (value >>> magnitude) - SUB_BUCKETS / 2;
+            return magnitude * SUB_BUCKETS + SUB_BUCKETS / 2 + subBucket;
+        }
+
+        private static long upperBoundOf(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int magnitude = index / SUB_BUCKETS;
+            int subBucket = index % SUB_BUCKETS - SUB_BUCKETS / 2;
+            return ((long) (subBucket + SUB_BUCKETS / 2 + 1) << magnitude) - 1;
+        }
+    }
+
+    /** Short collector label for the RESULT line, e.g. "G1", "ZGC-generational", "Parallel". */
+    private static String collectorName() {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            joiner.add(gc.getName());
+        }
+        String names = joiner.toString() + " ";
+        if (names.contains("ZGC")) {
+            return names.contains("ZGC Major") || names.contains("ZGC Minor") ? "ZGC-generational" : "ZGC";
+        } else if (names.contains("G1")) {
+            return "G1";
+        } else if (names.contains("PS ") || names.contains("Parallel")) {
+            return "Parallel";
+        } else if (names.contains("Shenandoah")) {
+            return "Shenandoah";
+        } else if (names.contains("Copy") || names.contains("MarkSweepCompact")) {
+            return "Serial";
+        }
+        return names.trim().isEmpty() ? "unknown" : names.trim();
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (isPauseCollector(gc)) {
+                total += Math.max(0, gc.getCollectionCount());
+            }
+        }
+        return total;
+    }
+
+    private static long gcPauseMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (isPauseCollector(gc)) {
+                total += Math.max(0, gc.getCollectionTime());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Every bean except the "Cycles" beans of ZGC/Shenandoah, which report concurrent cycle time.
+     * "G1 Concurrent GC" (JDK 20+) is kept: its time is the Remark and Cleanup pauses.
+     */
+    private static boolean isPauseCollector(GarbageCollectorMXBean gc) {
+        return !gc.getName().endsWith("Cycles");
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --key value pairs after 'slo', got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
 }
@@ -0,0 +1,88 @@
+#!/usr/bin/env bash
+# Run the LowLatencyApp SLO harness under each available collector and compare
+# request latency (p50/p99/p99.9/max), hiccups and throughput side by side.
+#
+# Usage: ./run_gc_comparison.sh [harness options]
+#   e.g. ./run_gc_comparison.sh --seconds 60 --live-set-mb 1024 --alloc-mb 500
+# Environment: HEAP (default 2g) sets -Xms/-Xmx for every run.
+#
+# Collectors that the current JDK does not support (generational ZGC before
+# JDK 21, for example) are probed with -version and skipped. The ZGC rows are
+# also checked against the mode the JVM actually selects, since JDK 24+ accepts
+# -XX:-ZGenerational with a warning and still runs generational ZGC. Each run
+# keeps its GC log as advanced-a1-<collector>-gc.log for the JVM Health Analyzer.
+set -euo pipefail
+set -x
+
+LAB_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+cd "$LAB_DIR"
+
+HEAP=${HEAP:-2g}
+javac LowLatencyApp.java
+JAVA_FEATURE=$(java -XshowSettings:properties -version 2>&1 | sed -n 's/^ *java.specification.version = //p')
+
+# Prints "generational" or "single" for the ZGC mode the JVM picks with these flags.
+zgc_mode() {
+  local final
+  # shellcheck disable=SC2086
+  final=$(java $1 -XX:+PrintFlagsFinal -version 2>/dev/null | awk '$2 == "ZGenerational" {print $4}')
+  if [[ -n "$final" ]]; then
+    [[ "$final" == "true" ]] && echo generational || echo single
+  elif (( ${JAVA_FEATURE%%.*} >= 24 )); then
+    echo generational # ZGenerational is obsolete: only generational ZGC is left
+  else
+    echo single # JDK < 21: only single-generation ZGC exists
+  fi
+}
+
+CONFIGS=(
+  "g1|-XX:+UseG1GC"
+  "parallel|-XX:+UseParallelGC"
+  "zgc|-XX:+UseZGC -XX:-ZGenerational"
+  "zgc-generational|-XX:+UseZGC -XX:+ZGenerational"
+)
+
+RESULTS=()
+for CONFIG in "${CONFIGS[@]}"; do
+  LABEL=${CONFIG%%|*}
+  FLAGS=${CONFIG#*|}
+  # shellcheck disable=SC2086 # FLAGS carries several JVM options
+  if ! java $FLAGS -version > /dev/null 2>&1; then
+    if [[ "$LABEL" == "zgc" ]] && java -XX:+UseZGC -version > /dev/null 2>&1; then
+      FLAGS="-XX:+UseZGC" # JDK < 21: ZGC is single-generation and has no ZGenerational flag
+    else
+      echo "===> Skipping $LABEL: '$FLAGS' is not supported by this JDK"
+      continue
+    fi
+  fi
+  if [[ "$LABEL" == zgc* ]]; then
+    WANTED=single
+    [[ "$LABEL" == "zgc-generational" ]] && WANTED=generational
+    ACTUAL=$(zgc_mode "$FLAGS")
+    if [[ "$ACTUAL" != "$WANTED" ]]; then
+      echo "===> Skipping $LABEL: '$FLAGS' runs $ACTUAL ZGC on this JDK, not $WANTED"
+      continue
+    fi
+  fi
+  echo "===> Running SLO harness with $LABEL ($FLAGS)"
+  # shellcheck disable=SC2086
+  OUTPUT=$(java -Xms"$HEAP" -Xmx"$HEAP" $FLAGS \
+    -Xlog:gc*:file="advanced-a1-$LABEL-gc.log":uptime,time,level,tags \
+    -cp "$LAB_DIR" LowLatencyApp slo "$@" | tee /dev/stderr)
+  RESULTS+=("$(grep '^RESULT ' <<< "$OUTPUT")")
+done
+
+set +x
+field() {
+  sed -n "s/.* $1=\([^ ]*\).*/\1/p" <<< "$2"
+}
+echo "===> LowLatencyApp SLO comparison (-Xmx$HEAP; latency in ms from intended start)"
+printf '%-18s %9s %9s %9s %9s %11s %10s %10s %9s\n' \
+  "collector" "p50" "p99" "p99.9" "max" "hiccup max" "req/s" "alloc MB/s" "GC ms"
+for RESULT in "${RESULTS[@]}"; do
+  printf '%-18s %9s %9s %9s %9s %11s %10s %10s %9s\n' \
+    "$(field collector "$RESULT")" "$(field p50 "$RESULT")" "$(field p99 "$RESULT")" \
+    "$(field p999 "$RESULT")" "$(field max "$RESULT")" "$(field hiccup_max "$RESULT")" \
+    "$(field throughput "$RESULT")" "$(field alloc "$RESULT")" "$(field gc_ms "$RESULT")"
+done
+echo "GC ms sums pause-time collector beans only; ZGC pauses are sub-millisecond and may round to 0."
@@ -1,9 +1,24 @@
 import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -15,26 +30,51 @@ import com.sun.net.httpserver.HttpServer;
 /**
  * HTTP service designed for JFR profiling labs. Verbose startup messaging helps
  * validate configuration before recordings are taken.
+ * <p>
+ * {@code java MyServiceAppJfr [baseline|optimized]} selects the request path:
+ * {@code baseline} (default) allocates 5,000 {@code double[512]} arrays per
+ * request on a fixed pool of 8 threads; {@code optimized} runs the same arithmetic
+ * into pooled off-heap slots on a virtual-thread executor. Compare the two
+ * recordings to see what disappears from the allocation and GC views.
  */
 public class MyServiceAppJfr {
     private static final Logger LOGGER = Logger.getLogger(MyServiceAppJfr.class.getName());
+    private static final int ROWS = 5_000;
+    private static final int COLUMNS = 512;
 
     /**
      * Application entry point that configures verbose logging, starts the HTTP
      * server, and blocks to keep the service alive for profiling.
      *
-     * @param args command line arguments (unused)
+     * @param args optional request-path mode: {@code baseline} (default) or
+     *             {@code optimized}
      * @throws IOException          when the HTTP server fails to bind or start
      * @throws InterruptedException if the keep-alive latch is interrupted
      */
     public static void main(String[] args) throws IOException, InterruptedException {
         configureLogging();
 
-        LOGGER.info("Starting MyServiceAppJfr on port 8081...");
+        String mode = args.length > 0 ? args[0].toLowerCase(Locale.ROOT) : "baseline";
+        ServiceStats stats = new ServiceStats(mode);
+        LOGGER.info("Starting MyServiceAppJfr on port 8081 in " + mode + " mode...");
         HttpServer server = HttpServer.create(new InetSocketAddress(8081), 0);
-        server.createContext("/heavy", new HeavyHandler());
-        server.setExecutor(java.util.concurrent.Executors.newFixedThreadPool(8));
+        if ("baseline".equals(mode)) {
+            server.createContext("/heavy", new HeavyHandler(stats));
+            server.setExecutor(Executors.newFixedThreadPool(8));
+        } else if ("optimized".equals(mode)) {
+            int slots = Runtime.getRuntime().availableProcessors();
+            server.createContext("/heavy", new PooledHeavyHandler(new OffHeapSlotPool(slots), stats));
+            server.setExecutor(newHandlerExecutor(slots));
+            LOGGER.info(String.format("Optimized mode: %d off-heap slots of %d KB, executor=%s", slots,
+                    ROWS * COLUMNS * Double.BYTES / 1024,
+                    virtualThreadsAvailable() ? "virtual threads" : "fixed pool (JDK < 21)"));
+        } else {
+            LOGGER.severe("Unknown mode '" + mode + "'; usage: java MyServiceAppJfr [baseline|optimized]");
+            System.exit(2);
+            return;
+        }
         server.start();
+        stats.startReporter();
         LOGGER.info("Hit http://localhost:8081/heavy to generate profiling load");
         LOGGER.info("HTTP server started successfully and is ready to accept traffic.");
 
@@ -42,6 +82,7 @@ public class MyServiceAppJfr {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             LOGGER.info("Shutdown requested; stopping HTTP server.");
             server.stop(0);
+            stats.printSummary();
             keepAlive.countDown();
         }, "server-shutdown-hook"));
 
@@ -50,6 +91,12 @@ public class MyServiceAppJfr {
     }
 
     static class HeavyHandler implements HttpHandler {
+        private final ServiceStats stats;
+
+        HeavyHandler(ServiceStats stats) {
+            this.stats = stats;
+        }
+
         /**
          * Handles heavy CPU and allocation work to generate profiling activity on
          * demand, logging request lifecycle details for easier diagnostics.
@@ -60,14 +107,15 @@ public class MyServiceAppJfr {
          */
         @Override
         public void handle(HttpExchange exchange) throws IOException {
+            long allocatedAtStart = stats.begin();
             LOGGER.info(() -> String.format("Handling %s request from %s to %s", exchange.getRequestMethod(),
                     exchange.getRemoteAddress(), exchange.getRequestURI()));
             long start = System.nanoTime();
 
             // CPU + allocations
             List<double[]> junk = new ArrayList<>();
-            for (int i = 0; i < 5_000; i++) {
-                double[] arr = new double[512];
+            for (int i = 0; i < ROWS; i++) {
+                double[] arr = new double[COLUMNS];
                 for (int j = 0; j < arr.length; j++) {
                     arr[j] = Math.sin(j) * Math.cos(i);
                 }
@@ -85,6 +133,307 @@ public class MyServiceAppJfr {
             exchange.sendResponseHeaders(200, responseBytes.length);
             exchange.getResponseBody().write(responseBytes);
             exchange.close();
+            stats.end(allocatedAtStart);
+        }
+    }
+
+    /**
+     * Same arithmetic as {@link HeavyHandler}, written into a pooled off-heap slot.
+     * The response is encoded into the slot's own byte array. Request logging is
+     * the same two INFO lines as the baseline, so the two modes differ only in the
+     * work path.
+     */
+    static class PooledHeavyHandler implements HttpHandler {
+        private static final byte[] PREFIX = "Heavy work done in ".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] SUFFIX = " ms\n".getBytes(StandardCharsets.US_ASCII);
+
+        private final OffHeapSlotPool pool;
+        private final ServiceStats stats;
+
+        PooledHeavyHandler(OffHeapSlotPool pool, ServiceStats stats) {
+            this.pool = pool;
+            this.stats = stats;
+        }
+
+        /**
+         * Handles the heavy workload without per-request heap allocation for the
+         * results or the response; what remains is logging and the HTTP server's
+         * exchange bookkeeping.
+         *
+         * @param exchange HTTP exchange representing the incoming request and
+         *                 outgoing response
+         * @throws IOException if the response cannot be written
+         */
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            long allocatedAtStart = stats.begin();
+            LOGGER.info(() -> String.format("Handling %s request from %s to %s", exchange.getRequestMethod(),
+                    exchange.getRemoteAddress(), exchange.getRequestURI()));
+            long start = System.nanoTime();
+            WorkSlot slot;
+            try {
+                slot = pool.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            try {
+                DoubleBuffer values = slot.values;
+                for (int i = 0; i < ROWS; i++) {
+                    int row = i * COLUMNS;
+                    for (int j = 0; j < COLUMNS; j++) {
+                        values.put(row + j, Math.sin(j) * Math.cos(i));
+                    }
+                }
+
+                long durationMs = (System.nanoTime() - start) / 1_000_000;
+                int length = encodeResponse(slot.response, durationMs);
+                LOGGER.info(() -> String.format("Computed heavy workload in %d ms; response size=%d bytes", durationMs,
+                        length));
+                exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=UTF-8");
+                exchange.sendResponseHeaders(200, length);
+                exchange.getResponseBody().write(slot.response, 0, length);
+                exchange.close();
+            } finally {
+                pool.release(slot);
+            }
+            stats.end(allocatedAtStart);
+        }
+
+        private static int encodeResponse(byte[] target, long durationMs) {
+            System.arraycopy(PREFIX, 0, target, 0, PREFIX.length);
+            int position = PREFIX.length;
+            int digits = 1;
+            for (long rest = durationMs / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            long value = durationMs;
+            for (int i = position + digits - 1; i >= position; i--) {
+                target[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            position += digits;
+            System.arraycopy(SUFFIX, 0, target, position, SUFFIX.length);
+            return position + SUFFIX.length;
+        }
+    }
+
+    /** One pooled unit of work: an off-heap slice for the results plus a response scratch buffer. */
+    static final class WorkSlot {
+        final DoubleBuffer values;
+        final byte[] response = new byte[64];
+
+        WorkSlot(ByteBuffer slice) {
+            this.values = slice.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+    }
+
+    /** Bounded pool of {@link WorkSlot}s over one direct arena; a slot is taken from a random stripe, never allocated anew. */
+    static final class OffHeapSlotPool {
+        private final ArrayBlockingQueue<WorkSlot>[] stripes;
+        private final Semaphore permits;
+
+        @SuppressWarnings("unchecked")
+        OffHeapSlotPool(int slots) {
+            int slotBytes = ROWS * COLUMNS * Double.BYTES;
+            ByteBuffer arena = ByteBuffer.allocateDirect(Math.multiplyExact(slots, slotBytes));
+            stripes = (ArrayBlockingQueue<WorkSlot>[]) new ArrayBlockingQueue<?>[slots];
+            for (int i = 0; i < slots; i++) {
+                stripes[i] = new ArrayBlockingQueue<>(slots);
+            }
+            for (int i = 0; i < slots; i++) {
+                arena.limit((i + 1) * slotBytes).position(i * slotBytes);
+                stripes[i].add(new WorkSlot(arena.slice()));
+            }
+            permits = new Semaphore(slots);
+        }
+
+        WorkSlot acquire() throws InterruptedException {
+            permits.acquire();
+            int home = homeStripe();
+            while (true) { // a permit guarantees a free slot; a concurrent release may briefly hide it
+                for (int i = 0; i < stripes.length; i++) {
+                    WorkSlot slot = stripes[(home + i) % stripes.length].poll();
+                    if (slot != null) {
+                        return slot;
+                    }
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        void release(WorkSlot slot) {
+            stripes[homeStripe()].offer(slot);
+            permits.release();
+        }
+
+        private int homeStripe() {
+            return ThreadLocalRandom.current().nextInt(stripes.length);
+        }
+    }
+
+    /** Per-mode request statistics; the exit summary uses stdout since logging may already be reset in the hook. */
+    static final class ServiceStats {
+        private static final com.sun.management.ThreadMXBean THREADS =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        private final String mode;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder handlerBytes = new LongAdder();
+        private final LongAdder measuredRequests = new LongAdder();
+        private final LongAdder virtualRequests = new LongAdder();
+        private Map<Long, Long> carrierBaseline = Map.of();
+        private volatile boolean started;
+        private long startNanos;
+        private long startAllocated;
+        private long startGcMillis;
+
+        ServiceStats(String mode) {
+            this.mode = mode;
+        }
+
+        long begin() {
+            if (!started) {
+                markStart();
+            }
+            return THREADS.getCurrentThreadAllocatedBytes();
+        }
+
+        void end(long allocatedAtStart) {
+            requests.increment();
+            if (allocatedAtStart < 0) {
+                // -1 on a virtual thread: its allocation is charged to the carrier and summed at the end
+                if (THREADS.isThreadAllocatedMemoryEnabled()) {
+                    virtualRequests.increment();
+                }
+                return;
+            }
+            handlerBytes.add(THREADS.getCurrentThreadAllocatedBytes() - allocatedAtStart);
+            measuredRequests.increment();
+        }
+
+        private synchronized void markStart() {
+            if (!started) {
+                startNanos = System.nanoTime();
+                startAllocated = jvmAllocatedBytes();
+                startGcMillis = gcPauseMillis();
+                carrierBaseline = carrierAllocatedBytes();
+                started = true;
+            }
+        }
+
+        void startReporter() {
+            Thread reporter = new Thread(() -> {
+                long lastNanos = System.nanoTime();
+                long lastRequests = 0;
+                long lastAllocated = jvmAllocatedBytes();
+                long lastGcMillis = gcPauseMillis();
+                while (true) {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long nanos = System.nanoTime();
+                    long count = requests.sum();
+                    long allocated = jvmAllocatedBytes();
+                    long gcMillis = gcPauseMillis();
+                    LOGGER.info("[stats] " + format(count - lastRequests, nanos - lastNanos,
+                            allocated - lastAllocated, gcMillis - lastGcMillis));
+                    lastNanos = nanos;
+                    lastRequests = count;
+                    lastAllocated = allocated;
+                    lastGcMillis = gcMillis;
+                }
+            }, "service-stats");
+            reporter.setDaemon(true);
+            reporter.start();
+        }
+
+        synchronized void printSummary() {
+            if (!started) {
+                System.out.printf("[summary] mode=%s requests=0%n", mode);
+                return;
+            }
+            long count = requests.sum();
+            long measured = measuredRequests.sum() + virtualRequests.sum();
+            long bytes = handlerBytes.sum();
+            if (virtualRequests.sum() > 0) {
+                for (Map.Entry<Long, Long> carrier : carrierAllocatedBytes().entrySet()) {
+                    bytes += Math.max(0, carrier.getValue() - carrierBaseline.getOrDefault(carrier.getKey(), 0L));
+                }
+            }
+            String handler = measured > 0 ? String.format(Locale.ROOT, "%.1f", bytes / 1024.0 / measured) : "n/a";
+            System.out.printf(Locale.ROOT, "[summary] %s handler-KB/request=%s%n",
+                    format(count, System.nanoTime() - startNanos, jvmAllocatedBytes() - startAllocated,
+                            gcPauseMillis() - startGcMillis), handler);
+        }
+
+        private String format(long count, long elapsedNanos, long allocatedBytes, long gcMillis) {
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            return String.format(Locale.ROOT, "mode=%s requests=%d throughput=%.1f req/s jvm-KB/request=%s gc-pause=%.2f%% (%d ms)",
+                    mode, count, count / seconds,
+                    count > 0 ? String.format(Locale.ROOT, "%.1f", allocatedBytes / 1024.0 / count) : "n/a",
+                    100.0 * gcMillis / (seconds * 1000.0), gcMillis);
+        }
+
+        private static long jvmAllocatedBytes() {
+            long total = 0;
+            for (long bytes : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+                if (bytes > 0) {
+                    total += bytes;
+                }
+            }
+            return total;
+        }
+
+        /** Live carrier threads of the virtual-thread scheduler by id; none exist before JDK 21. */
+        private static Map<Long, Long> carrierAllocatedBytes() {
+            Map<Long, Long> bytes = new HashMap<>();
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if ("jdk.internal.misc.CarrierThread".equals(thread.getClass().getName())) {
+                    bytes.put(thread.getId(), THREADS.getThreadAllocatedBytes(thread.getId()));
+                }
+            }
+            return bytes;
+        }
+
+        /** Skips only the ZGC/Shenandoah "Cycles" beans; "G1 Concurrent GC" (JDK 20+) times Remark/Cleanup pauses. */
+        private static long gcPauseMillis() {
+            long total = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gc.getCollectionTime() > 0 && !gc.getName().endsWith("Cycles")) {
+                    total += gc.getCollectionTime();
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Creates the optimized-mode executor: one virtual thread per exchange on JDK
+     * 21+, or a core-sized fixed pool on older runtimes.
+     *
+     * @param fallbackThreads pool size used when virtual threads are unavailable
+     * @return the executor handed to the HTTP server
+     */
+    private static ExecutorService newHandlerExecutor(int fallbackThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(fallbackThreads);
+        }
+    }
+
+    private static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
         }
     }
 
@@ -1,51 +1,75 @@
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
-import java.time.Instant;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * AsyncProfilerLab drives CPU-intensive and allocation-heavy work so you can
- * capture flame graphs with async-profiler. The application keeps verbose
- * logging enabled to expose every lifecycle transition per international
- * programming standards for diagnosable labs.
+ * capture flame graphs with async-profiler. Per-cycle FINE/FINEST logging is
+ * available with {@code --log-level FINEST}, but it is off by default because
+ * formatting and console I/O otherwise dominate the very profile under study.
+ * <p>
+ * The workload is described by a {@link WorkloadSpec} (matrix sizes, allocation
+ * size distribution, lock-sharing ratio, I/O wait fraction, worker count, seed)
+ * read from {@code --spec file.properties} and/or {@code --key value} options.
+ * Every worker draws its choices from a seeded {@link Random}, so the same spec
+ * replays the same operation mix, and the lab reports its own ops/sec so
+ * profiler overhead and optimizations can be measured rather than eyeballed.
  */
 public final class AsyncProfilerLab {
     private static final Logger LOGGER = Logger.getLogger(AsyncProfilerLab.class.getName());
-    private static final int DEFAULT_WORKERS = 8;
-    private static final int DEFAULT_CYCLE_COUNT = 5_000;
-    private static final long WORKLOAD_DURATION_MILLIS = 5 * 60 * 1000; // 5 minutes
+    private static final int SHARED_BUCKETS = 64;
+    private static final Object SHARED_LOCK = new Object();
+    private static final long[] SHARED_BUCKET_COUNTS = new long[SHARED_BUCKETS];
 
     private AsyncProfilerLab() {
         // Utility class: do not instantiate.
     }
 
     /**
-     * Entry point that configures verbose logging, spins CPU and allocation
-     * heavy tasks, and keeps the JVM alive for profiling attachments.
+     * Entry point that configures logging, spins CPU and allocation heavy tasks
+     * according to the workload spec, and keeps the JVM alive for profiling
+     * attachments.
      *
-     * @param args command line arguments (unused)
+     * @param args {@code --spec <file>} and/or {@code --key value} overrides; see
+     *             {@link WorkloadSpec} for the keys
      * @throws InterruptedException if shutdown waits are interrupted
+     * @throws IOException          if the spec file cannot be read
      */
-    public static void main(String[] args) throws InterruptedException {
-        configureLogging();
+    public static void main(String[] args) throws InterruptedException, IOException {
+        WorkloadSpec spec = WorkloadSpec.parse(args);
+        configureLogging(spec.logLevel);
+
+        LOGGER.info(() -> String.format("Starting AsyncProfilerLab with %d workers, running for %d s (first %d s warmup).",
+                spec.workers, spec.durationSeconds, spec.warmupSeconds));
+        LOGGER.info("Workload spec (save as a .properties file to replay with --spec):\n" + spec.describe());
 
-        LOGGER.info(() -> String.format("Starting AsyncProfilerLab with %d workers and %d workload cycles, running for %d minutes.", 
-                DEFAULT_WORKERS, DEFAULT_CYCLE_COUNT, WORKLOAD_DURATION_MILLIS / 60000));
-        
         // Define the time when the program should stop
-        final long endTimeMillis = System.currentTimeMillis() + WORKLOAD_DURATION_MILLIS;
+        final long startNanos = System.nanoTime();
+        final long measureStartNanos = startNanos + TimeUnit.SECONDS.toNanos(spec.warmupSeconds);
+        final long endTimeMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(spec.durationSeconds);
 
         AtomicBoolean running = new AtomicBoolean(true);
-        ExecutorService executor = Executors.newFixedThreadPool(DEFAULT_WORKERS);
+        ThroughputStats stats = new ThroughputStats(spec, startNanos, measureStartNanos);
+        ExecutorService executor = Executors.newFixedThreadPool(spec.workers);
 
         // This shutdown hook is still necessary for external signals (like Ctrl+C)
         // and will also be triggered when the main thread loop finishes.
@@ -62,68 +86,78 @@ public final class AsyncProfilerLab {
                 Thread.currentThread().interrupt();
                 LOGGER.log(Level.SEVERE, "Interrupted during shutdown", e);
             }
+            stats.printSummary();
         }, "async-profiler-lab-shutdown"));
 
-        for (int i = 0; i < DEFAULT_WORKERS; i++) {
+        for (int i = 0; i < spec.workers; i++) {
             int workerId = i;
-            executor.submit(() -> runWorkload(workerId, running, endTimeMillis));
+            // execute, not submit: a worker that throws must show up on stderr, not vanish into an unread Future
+            executor.execute(() -> runWorkload(workerId, spec, stats, running, endTimeMillis));
         }
 
         LOGGER.info("Workers started. Attach async-profiler (cpu + alloc) now.");
 
-        // Keep the main thread alive while workers loop, but also check the time limit.
-        // It will exit when the time limit is hit and the AtomicBoolean is set to false.
+        // Keep the main thread alive while workers loop, reporting throughput per
+        // interval. It exits when the time limit is hit or the flag is cleared.
+        long nextReport = System.nanoTime() + TimeUnit.SECONDS.toNanos(spec.reportSeconds);
         while (running.get() && System.currentTimeMillis() < endTimeMillis) {
-            Thread.sleep(2_000L);
+            Thread.sleep(Math.min(1_000L, Math.max(1L, endTimeMillis - System.currentTimeMillis())));
+            stats.markMeasureStart();
+            if (System.nanoTime() >= nextReport) {
+                stats.reportInterval();
+                nextReport += TimeUnit.SECONDS.toNanos(spec.reportSeconds);
+            }
         }
-        
+
         // Time limit reached; signal workers to stop via the running flag and then the shutdown hook.
         if (System.currentTimeMillis() >= endTimeMillis) {
             LOGGER.info("Time limit reached. Signalling workers to stop and initiating JVM shutdown.");
             running.set(false);
         }
 
-        // Wait a short time for the shutdown hook to execute its cleanup
-        executor.awaitTermination(6, TimeUnit.SECONDS); 
+        executor.shutdown();
+        executor.awaitTermination(6, TimeUnit.SECONDS);
+        stats.printSummary();
         LOGGER.info("AsyncProfilerLab main thread exiting. Goodbye.");
     }
 
-    private static void runWorkload(int workerId, AtomicBoolean running, long endTimeMillis) {
-        LOGGER.fine(() -> String.format("Worker-%d started workload loop with verbose logging enabled.", workerId));
-        Random random = new Random(workerId * 17L + System.nanoTime());
-        int cycleCounter = 0;
+    private static void runWorkload(int workerId, WorkloadSpec spec, ThroughputStats stats, AtomicBoolean running,
+            long endTimeMillis) {
+        LOGGER.fine(() -> String.format("Worker-%d started workload loop.", workerId));
+        // Seeded per worker: the same spec replays the same sequence of choices.
+        Random random = new Random(spec.seed * 1_000_003L + workerId);
+        long[] localBuckets = new long[SHARED_BUCKETS];
+        boolean traceCycles = LOGGER.isLoggable(Level.FINE);
+        long cycleCounter = 0;
 
-        // The workload loop now uses the time constraint AND the atomic boolean
+        // The workload loop uses the time constraint AND the atomic boolean
         while (running.get() && System.currentTimeMillis() < endTimeMillis) {
-            Instant cycleStart = Instant.now();
-            double cpuResult = spinCpu(random);
-            byte[] payload = allocatePayload(random);
+            long cycleStart = traceCycles ? System.nanoTime() : 0L;
+            double cpuResult = spinCpu(random, spec.matrixSizes[random.nextInt(spec.matrixSizes.length)]);
+            byte[] payload = allocatePayload(random, spec);
             simulateBusinessLogic(random, payload);
+            recordResult(random, spec, cpuResult, localBuckets);
+            if (spec.ioWaitFraction > 0 && random.nextDouble() < spec.ioWaitFraction) {
+                // Simulated blocking I/O: visible in wall-clock profiles, absent from cpu ones.
+                LockSupport.parkNanos(spec.ioWaitMicros * 1_000L);
+            }
+            stats.completed();
             cycleCounter++;
 
-            Duration cycleDuration = Duration.between(cycleStart, Instant.now());
-            LOGGER.fine(() -> String.format("Worker-%d completed cycle in %d ms (checksum=%.4f, payload=%d bytes)", workerId,
-                    cycleDuration.toMillis(), cpuResult, payload.length));
-
-            if (cycleCounter % DEFAULT_CYCLE_COUNT == 0) {
-                // This local variable 'cycles' is effectively final for the lambda inside the loop.
-                final int cycles = cycleCounter; 
-                LOGGER.info(() -> String.format(
-                        "Worker-%d reached %,d cycles; async-profiler should show stable flame shapes now.",
-                        workerId, cycles));
+            if (traceCycles) {
+                long cycleMicros = (System.nanoTime() - cycleStart) / 1_000;
+                LOGGER.fine(String.format("Worker-%d completed cycle in %d us (checksum=%.4f, payload=%d bytes)",
+                        workerId, cycleMicros, cpuResult, payload.length));
             }
         }
-        
-        // FIX: Create a final/effectively final copy of cycleCounter's final value
-        // before referencing it in the final logging lambda.
-        final int finalCycleCount = cycleCounter;
+
+        final long finalCycleCount = cycleCounter;
         LOGGER.info(() -> String.format("Worker-%d finished after %,d cycles.", workerId, finalCycleCount));
     }
 
-    private static double spinCpu(Random random) {
+    private static double spinCpu(Random random, int size) {
         // Simulate CPU-bound math using small matrix multiplications to create
         // predictable hot spots for async-profiler flame graphs.
-        int size = 20;
         double[][] a = new double[size][size];
         double[][] b = new double[size][size];
         double[][] c = new double[size][size];
@@ -154,17 +188,18 @@ public final class AsyncProfilerLab {
         return checksum;
     }
 
-    private static byte[] allocatePayload(Random random) {
-        // Allocate several arrays and concatenate to trigger allocation
-        // profiling samples. Content is deterministic for reproducibility.
-        List<byte[]> blocks = new ArrayList<>();
-        for (int i = 0; i < 32; i++) {
-            byte[] block = new byte[1_024];
+    private static byte[] allocatePayload(Random random, WorkloadSpec spec) {
+        // Allocate several arrays, sized from the spec's distribution, and
+        // concatenate them to trigger allocation profiling samples.
+        List<byte[]> blocks = new ArrayList<>(spec.blocksPerOp);
+        int total = 0;
+        for (int i = 0; i < spec.blocksPerOp; i++) {
+            byte[] block = new byte[spec.sampleBlockSize(random)];
             random.nextBytes(block);
             blocks.add(block);
+            total += block.length;
         }
 
-        int total = blocks.size() * blocks.get(0).length;
         byte[] combined = new byte[total];
         int offset = 0;
         for (byte[] block : blocks) {
@@ -182,21 +217,286 @@ public final class AsyncProfilerLab {
         if (filtered.length() > 512 && random.nextBoolean()) {
             String slice = filtered.substring(0, 512);
             double math = slice.chars().mapToDouble(c -> c * 0.37d).sum();
-            LOGGER.finest(() -> String.format("Business logic math result: %.2f", math));
+            if (LOGGER.isLoggable(Level.FINEST)) {
+                LOGGER.finest(String.format("Business logic math result: %.2f", math));
+            }
+        }
+    }
+
+    /**
+     * Publishes the cycle's result into a histogram: the shared one under a global
+     * lock with probability {@code lock-sharing}, otherwise a worker-private one.
+     * Raising the ratio turns the same work into monitor contention.
+     */
+    private static void recordResult(Random random, WorkloadSpec spec, double cpuResult, long[] localBuckets) {
+        int bucket = (int) (Double.doubleToRawLongBits(cpuResult) >>> 58) & (SHARED_BUCKETS - 1);
+        if (spec.lockSharing > 0 && random.nextDouble() < spec.lockSharing) {
+            synchronized (SHARED_LOCK) {
+                for (int i = 0; i < spec.lockHoldIterations; i++) {
+                    SHARED_BUCKET_COUNTS[(bucket + i) & (SHARED_BUCKETS - 1)]++;
+                }
+            }
+        } else {
+            for (int i = 0; i < spec.lockHoldIterations; i++) {
+                localBuckets[(bucket + i) & (SHARED_BUCKETS - 1)]++;
+            }
         }
     }
 
-    private static void configureLogging() {
+    private static void configureLogging(Level level) {
         Logger rootLogger = Logger.getLogger("");
         for (var handler : rootLogger.getHandlers()) {
-            handler.setLevel(Level.FINEST);
+            handler.setLevel(level);
+        }
+
+        if (rootLogger.getHandlers().length == 0) {
+            ConsoleHandler consoleHandler = new ConsoleHandler();
+            consoleHandler.setLevel(level);
+            rootLogger.addHandler(consoleHandler);
+        }
+
+        rootLogger.setLevel(level);
+        LOGGER.config(() -> "Logging configured to Level." + level.getName()
+                + "; FINE/FINEST per-cycle logging distorts cpu and alloc profiles, so it is opt-in.");
+    }
+
+    /**
+     * Workload description. Keys (defaults in parentheses): {@code workers} (8),
+     * {@code duration} seconds (300), {@code warmup} seconds excluded from ops/sec
+     * (10), {@code report} interval seconds (10), {@code seed} (42),
+     * {@code matrix-sizes} comma list picked uniformly per cycle (20),
+     * {@code alloc-sizes} weighted {@code bytes:weight} list (1024:1),
+     * {@code blocks-per-op} (32), {@code lock-sharing} share of cycles that
+     * publish under the global lock (0.0), {@code lock-hold} updates per publish
+     * (16), {@code io-wait-fraction} share of cycles that block (0.0),
+     * {@code io-wait-us} block time (2000), {@code log-level} (INFO).
+     */
+    static final class WorkloadSpec {
+        final int workers;
+        final long durationSeconds;
+        final long warmupSeconds;
+        final long reportSeconds;
+        final long seed;
+        final int[] matrixSizes;
+        final int[] blockSizes;
+        final double[] blockSizeCdf;
+        final int blocksPerOp;
+        final double lockSharing;
+        final int lockHoldIterations;
+        final double ioWaitFraction;
+        final long ioWaitMicros;
+        final Level logLevel;
+        private final Map<String, String> values;
+
+        private WorkloadSpec(Map<String, String> values) {
+            this.values = values;
+            workers = Integer.parseInt(values.get("workers"));
+            durationSeconds = Long.parseLong(values.get("duration"));
+            warmupSeconds = Long.parseLong(values.get("warmup"));
+            reportSeconds = Math.max(1, Long.parseLong(values.get("report")));
+            seed = Long.parseLong(values.get("seed"));
+            matrixSizes = parseInts(values.get("matrix-sizes"));
+            blocksPerOp = Integer.parseInt(values.get("blocks-per-op"));
+            lockSharing = Double.parseDouble(values.get("lock-sharing"));
+            lockHoldIterations = Integer.parseInt(values.get("lock-hold"));
+            ioWaitFraction = Double.parseDouble(values.get("io-wait-fraction"));
+            ioWaitMicros = Long.parseLong(values.get("io-wait-us"));
+            logLevel = Level.parse(values.get("log-level").toUpperCase(Locale.ROOT));
+
+            String[] entries = values.get("alloc-sizes").split(",");
+            blockSizes = new int[entries.length];
+            blockSizeCdf = new double[entries.length];
+            double weightSum = 0;
+            for (int i = 0; i < entries.length; i++) {
+                String[] parts = entries[i].trim().split(":");
+                blockSizes[i] = Integer.parseInt(parts[0].trim());
+                double weight = parts.length > 1 ? Double.parseDouble(parts[1].trim()) : 1.0;
+                require(blockSizes[i] >= 0, "alloc-sizes entries must be >= 0 bytes: " + entries[i]);
+                require(weight >= 0 && Double.isFinite(weight), "alloc-sizes weights must be finite and >= 0: " + entries[i]);
+                weightSum += weight;
+                blockSizeCdf[i] = weightSum;
+            }
+            require(weightSum > 0, "alloc-sizes needs at least one positive weight");
+            for (int i = 0; i < blockSizeCdf.length; i++) {
+                blockSizeCdf[i] /= weightSum;
+            }
+
+            require(workers >= 1, "workers must be >= 1");
+            require(durationSeconds >= 1, "duration must be >= 1 second");
+            require(warmupSeconds >= 0, "warmup must be >= 0");
+            for (int size : matrixSizes) {
+                require(size >= 1, "matrix-sizes entries must be >= 1");
+            }
+            require(blocksPerOp >= 1, "blocks-per-op must be >= 1");
+            require((long) blocksPerOp * Arrays.stream(blockSizes).max().getAsInt() <= Integer.MAX_VALUE - 8,
+                    "blocks-per-op x largest alloc-sizes entry must fit in one byte[]");
+            require(lockSharing >= 0 && lockSharing <= 1, "lock-sharing must be within [0, 1]");
+            require(lockHoldIterations >= 0, "lock-hold must be >= 0");
+            require(ioWaitFraction >= 0 && ioWaitFraction <= 1, "io-wait-fraction must be within [0, 1]");
+            require(ioWaitMicros >= 0, "io-wait-us must be >= 0");
+        }
+
+        private static void require(boolean condition, String message) {
+            if (!condition) {
+                throw new IllegalArgumentException("Invalid workload spec: " + message);
+            }
+        }
+
+        static WorkloadSpec parse(String[] args) throws IOException {
+            Map<String, String> values = new LinkedHashMap<>();
+            values.put("workers", "8");
+            values.put("duration", "300");
+            values.put("warmup", "10");
+            values.put("report", "10");
+            values.put("seed", "42");
+            values.put("matrix-sizes", "20");
+            values.put("alloc-sizes", "1024:1");
+            values.put("blocks-per-op", "32");
+            values.put("lock-sharing", "0.0");
+            values.put("lock-hold", "16");
+            values.put("io-wait-fraction", "0.0");
+            values.put("io-wait-us", "2000");
+            values.put("log-level", "INFO");
+
+            Map<String, String> overrides = new LinkedHashMap<>();
+            for (int i = 0; i < args.length; i++) {
+                if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Expected --key value pairs, got: " + args[i]);
+                }
+                overrides.put(args[i].substring(2), args[++i]);
+            }
+            String specFile = overrides.remove("spec");
+            if (specFile != null) {
+                Properties properties = new Properties();
+                try (InputStream in = Files.newInputStream(Paths.get(specFile))) {
+                    properties.load(in);
+                }
+                for (String key : properties.stringPropertyNames()) {
+                    putKnown(values, key, properties.getProperty(key).trim());
+                }
+            }
+            for (Map.Entry<String, String> override : overrides.entrySet()) {
+                putKnown(values, override.getKey(), override.getValue());
+            }
+            return new WorkloadSpec(values);
+        }
+
+        int sampleBlockSize(Random random) {
+            if (blockSizes.length == 1) {
+                return blockSizes[0];
+            }
+            double u = random.nextDouble();
+            for (int i = 0; i < blockSizeCdf.length; i++) {
+                if (u < blockSizeCdf[i]) {
+                    return blockSizes[i];
+                }
+            }
+            return blockSizes[blockSizes.length - 1];
+        }
+
+        String describe() {
+            StringBuilder text = new StringBuilder();
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                text.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+            }
+            return text.toString().trim();
+        }
+
+        private static void putKnown(Map<String, String> values, String key, String value) {
+            if (!values.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown workload key '" + key + "'; known keys: " + values.keySet());
+            }
+            values.put(key, value);
+        }
+
+        private static int[] parseInts(String csv) {
+            String[] parts = csv.split(",");
+            int[] result = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                result[i] = Integer.parseInt(parts[i].trim());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Counts completed cycles and reports ops/sec per interval and for the
+     * measured window. The coefficient of variation across intervals tells you
+     * whether a run is stable enough to compare against another one.
+     */
+    static final class ThroughputStats {
+        private final WorkloadSpec spec;
+        private final long startNanos;
+        private final long measureStartNanos;
+        private final LongAdder total = new LongAdder();
+        private final List<Double> measuredIntervalRates = new ArrayList<>();
+        private long lastCount;
+        private long lastNanos;
+        private long measureStartCount = -1;
+        private long measuredFromNanos;
+        private boolean summaryPrinted;
+
+        ThroughputStats(WorkloadSpec spec, long startNanos, long measureStartNanos) {
+            this.spec = spec;
+            this.startNanos = startNanos;
+            this.measureStartNanos = measureStartNanos;
+            this.lastNanos = startNanos;
+        }
+
+        void completed() {
+            total.increment();
         }
 
-        ConsoleHandler consoleHandler = new ConsoleHandler();
-        consoleHandler.setLevel(Level.FINEST);
-        rootLogger.addHandler(consoleHandler);
+        /** Snapshots the cycle count once warmup is over; called on every main-loop tick. */
+        synchronized void markMeasureStart() {
+            if (measureStartCount < 0 && System.nanoTime() >= measureStartNanos) {
+                measureStartCount = total.sum();
+                measuredFromNanos = System.nanoTime();
+            }
+        }
+
+        synchronized void reportInterval() {
+            long now = System.nanoTime();
+            long count = total.sum();
+            double rate = (count - lastCount) / ((now - lastNanos) / 1_000_000_000.0);
+            boolean measuring = lastNanos >= measureStartNanos;
+            if (measuring) {
+                measuredIntervalRates.add(rate);
+            }
+            LOGGER.info(String.format(Locale.ROOT, "[throughput] %.1f ops/s over the last %.1f s%s", rate,
+                    (now - lastNanos) / 1_000_000_000.0, measuring ? "" : " (warmup)"));
+            lastCount = count;
+            lastNanos = now;
+        }
 
-        rootLogger.setLevel(Level.FINEST);
-        LOGGER.config("Verbose logging configured to Level.FINEST for async-profiler lab diagnostics.");
+        /** Printed once, to stdout: the logging framework may already be reset inside a shutdown hook. */
+        synchronized void printSummary() {
+            if (summaryPrinted) {
+                return;
+            }
+            summaryPrinted = true;
+            long count = total.sum();
+            long now = System.nanoTime();
+            // A run that ends inside warmup is measured as a whole rather than not at all.
+            long fromCount = measureStartCount >= 0 ? measureStartCount : 0;
+            long fromNanos = measureStartCount >= 0 ? measuredFromNanos : startNanos;
+            double seconds = Math.max(1e-9, (now - fromNanos) / 1_000_000_000.0);
+            double opsPerSecond = (count - fromCount) / seconds;
+            double mean = 0;
+            for (double rate : measuredIntervalRates) {
+                mean += rate;
+            }
+            mean = measuredIntervalRates.isEmpty() ? 0 : mean / measuredIntervalRates.size();
+            double variance = 0;
+            for (double rate : measuredIntervalRates) {
+                variance += (rate - mean) * (rate - mean);
+            }
+            double cv = measuredIntervalRates.size() > 1 && mean > 0
+                    ? Math.sqrt(variance / (measuredIntervalRates.size() - 1)) / mean : 0;
+            System.out.printf(Locale.ROOT, "===> AsyncProfilerLab throughput: %d ops in %.1f s measured = %.1f ops/s"
+                    + " (%d cycles total, interval CV %.1f%%)%n", count - fromCount, seconds, opsPerSecond, count, 100 * cv);
+            System.out.printf(Locale.ROOT, "RESULT ops=%d seconds=%.1f ops_per_sec=%.1f interval_cv=%.4f workers=%d seed=%d%n",
+                    count - fromCount, seconds, opsPerSecond, cv, spec.workers, spec.seed);
+        }
     }
-}
\ No newline at end of file
+}
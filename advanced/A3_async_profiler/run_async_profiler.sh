@@ -1,5 +1,7 @@
 #!/usr/bin/env bash
-# Compile and launch AsyncProfilerLab with verbose logging so async-profiler can attach cleanly.
+# Compile and launch AsyncProfilerLab with GC and JFR logging so async-profiler can attach cleanly.
+# Arguments are passed to the lab as its workload spec, e.g.
+#   ./run_async_profiler.sh --spec profiles/mixed-service.properties --duration 60
 # This script follows international programming standards by enabling strict flags and tracing every step.
 set -euo pipefail
 set -x
@@ -22,5 +24,6 @@ JAVA_OPTS=(
 # Launch the workload. Leave this running, then attach async-profiler from another terminal:
 #   profiler.sh -d 30 -e cpu -f cpu.svg <pid>
 #   profiler.sh -d 30 -e alloc -f alloc.svg <pid>
-# The console output includes FINEST-level lifecycle events to correlate with flame graphs.
-java "${JAVA_OPTS[@]}" AsyncProfilerLab
+# The lab reports its ops/sec every 10 s and prints a RESULT line on exit; add --log-level FINEST
+# for per-cycle events, at the cost of distorting the profile with logging work.
+java "${JAVA_OPTS[@]}" AsyncProfilerLab "$@"
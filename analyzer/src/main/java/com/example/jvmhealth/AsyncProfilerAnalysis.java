@@ -0,0 +1,701 @@
+package com.example.jvmhealth;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * async-profiler input for the JVM Health Report.
+ * <p>
+ * Reads the two formats the A3 lab produces: collapsed stacks ({@code -o collapsed}, one
+ * {@code frame;frame;...;leaf count} line per unique stack) and async-profiler's JFR output
+ * ({@code jdk.ExecutionSample}, {@code profiler.WallClockSample}, TLAB allocation,
+ * {@code jdk.JavaMonitorEnter} / {@code jdk.ThreadPark} and {@code profiler.Malloc}).
+ * CPU leaf frames, allocated classes and lock classes replace the JDK recording's hotspot,
+ * allocation and contention aggregates for each kind they cover: both usually profile the same
+ * run, so adding them would count every sample twice. Native and kernel frames and wall-clock
+ * samples, which JDK JFR does not capture, are reported in their own section.
+ * <p>
+ * Collapsed files can be hundreds of MB, so they are split into newline-aligned chunks that
+ * are streamed with positional reads and aggregated on a thread pool; the file is never held
+ * in memory whole. Only the leaf frame of each line is decoded, plus the frames back to the
+ * nearest Java caller when the leaf is native.
+ */
+final class AsyncProfilerAnalysis {
+
+    /** Chunk size for parallel collapsed-stack parsing; each chunk is one task. */
+    private static final int CHUNK_BYTES = 32 * 1024 * 1024;
+    private static final int READ_BUFFER_BYTES = 1024 * 1024;
+    /** Native + kernel share of CPU samples above which the section raises a finding. */
+    private static final double NATIVE_SHARE_WARN = 0.20;
+    /**
+     * HotSpot's default MinTLABSize. Every allocation sample written with {@code --total} weighs
+     * at least a TLAB or an outside-TLAB object, so a collapsed alloc file averaging less per
+     * stack holds sample counts rather than bytes.
+     */
+    private static final long MIN_TLAB_BYTES = 2048;
+    /**
+     * A collapsed lock file averaging more than this per stack holds {@code --total} wait
+     * nanoseconds rather than the sample counts Section C ranks by.
+     */
+    private static final long LOCK_SAMPLES_PER_STACK_MAX = 100_000;
+
+    private static final int CPU = 0;
+    private static final int WALL = 1;
+    private static final int ALLOC = 2;
+    private static final int LOCK = 3;
+    private static final String[] KIND_LABELS = {"cpu", "wall", "alloc", "lock"};
+
+    private static final int JAVA = 0;
+    private static final int NATIVE = 1;
+    private static final int KERNEL = 2;
+
+    // Per-frame weight slots: total, then by frame tier (fed to CompilerAnalysis for CPU frames)
+    private static final int TIER_INTERPRETED = 1;
+    private static final int TIER_JIT = 2;
+    private static final int TIER_INLINED = 3;
+    private static final int TIER_NATIVE = 4;
+    private static final int TIER_UNKNOWN = 5;
+    private static final String[] TIER_FRAME_TYPES = {null, "Interpreted", "JIT compiled", "Inlined", "Native", null};
+
+    private static final String NO_JAVA_CALLER = "<no Java frame>";
+
+    /** Weights for one event kind, by leaf frame; chunk-local instances are merged at the end. */
+    private static final class Profile {
+        final Map<String, long[]> selfByFrame = new HashMap<>();
+        final Map<String, long[]> nativeByJavaCaller = new HashMap<>();
+        long total = 0;
+        long nativeWeight = 0;
+        long kernelWeight = 0;
+        long lines = 0;
+        long malformedLines = 0;
+
+        void add(String frame, int frameClass, int tier, String javaCaller, long weight) {
+            total += weight;
+            String key = frameClass == NATIVE ? frame + " [native]" : frameClass == KERNEL ? frame + " [kernel]" : frame;
+            long[] slots = selfByFrame.computeIfAbsent(key, k -> new long[TIER_FRAME_TYPES.length]);
+            slots[0] += weight;
+            slots[tier] += weight;
+            if (frameClass != JAVA) {
+                if (frameClass == NATIVE) {
+                    nativeWeight += weight;
+                } else {
+                    kernelWeight += weight;
+                }
+                nativeByJavaCaller.computeIfAbsent(javaCaller, k -> new long[1])[0] += weight;
+            }
+        }
+
+        void merge(Profile other) {
+            other.selfByFrame.forEach((frame, slots) -> {
+                long[] mine = selfByFrame.computeIfAbsent(frame, k -> new long[slots.length]);
+                for (int i = 0; i < slots.length; i++) {
+                    mine[i] += slots[i];
+                }
+            });
+            other.nativeByJavaCaller.forEach((caller, w) ->
+                    nativeByJavaCaller.computeIfAbsent(caller, k -> new long[1])[0] += w[0]);
+            total += other.total;
+            nativeWeight += other.nativeWeight;
+            kernelWeight += other.kernelWeight;
+            lines += other.lines;
+            malformedLines += other.malformedLines;
+        }
+    }
+
+    private final Profile[] profiles = {new Profile(), new Profile(), new Profile(), new Profile()};
+    private final Map<String, long[]> mallocBytesByJavaCaller = new HashMap<>();
+    private long mallocBytes = 0;
+    private final List<String> inputs = new ArrayList<>();
+    private final List<String> unitWarnings = new ArrayList<>();
+    // JDK recording weight each kind replaced in mergeInto, or -1 if the JDK recording had none
+    private final long[] replacedJdkWeight = {-1, -1, -1, -1};
+
+    /**
+     * Loads one async-profiler output file. JFR files are recognized by their magic bytes;
+     * anything else is read as collapsed stacks, whose event kind comes from an optional
+     * {@code cpu:}, {@code wall:}, {@code alloc:} or {@code lock:} prefix, else from the file
+     * name, else defaults to cpu. Allocation collapsed files should be written with
+     * {@code --total} so that counts are bytes rather than samples.
+     */
+    void load(String spec) throws IOException {
+        int kind = -1;
+        String pathText = spec;
+        int colon = spec.indexOf(':');
+        if (colon > 0) {
+            kind = Arrays.asList(KIND_LABELS).indexOf(spec.substring(0, colon));
+            if (kind >= 0) {
+                pathText = spec.substring(colon + 1);
+            }
+        }
+        Path path = Path.of(pathText);
+        if (isJfr(path)) {
+            loadJfr(path);
+            return;
+        }
+        if (kind < 0) {
+            kind = kindFromFileName(path.getFileName().toString());
+        }
+        loadCollapsed(path, kind);
+    }
+
+    static String pathOf(String spec) {
+        int colon = spec.indexOf(':');
+        return colon > 0 && Arrays.asList(KIND_LABELS).contains(spec.substring(0, colon)) ? spec.substring(colon + 1) : spec;
+    }
+
+    /** Kind named by a whole token of the file name, so {@code block-io.collapsed} stays cpu. */
+    private static int kindFromFileName(String name) {
+        List<String> tokens = Arrays.asList(name.toLowerCase(Locale.ROOT).split("[._-]"));
+        for (int kind = WALL; kind < KIND_LABELS.length; kind++) {
+            if (tokens.contains(KIND_LABELS[kind])) {
+                return kind;
+            }
+        }
+        return CPU;
+    }
+
+    private static boolean isJfr(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) > 0) {
+                // fill the 4-byte header
+            }
+            return magic.position() == 4 && magic.get(0) == 'F' && magic.get(1) == 'L' && magic.get(2) == 'R'
+                    && magic.get(3) == 0;
+        }
+    }
+
+    // --- Collapsed stacks: parallel, streaming ---
+
+    private void loadCollapsed(Path path, int kind) throws IOException {
+        long startNanos = System.nanoTime();
+        Profile loaded = new Profile();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) Math.max(1, (size + CHUNK_BYTES - 1) / CHUNK_BYTES);
+            int threads = Math.min(chunks, Runtime.getRuntime().availableProcessors());
+            if (threads <= 1) {
+                for (int i = 0; i < chunks; i++) {
+                    loaded.merge(parseChunk(channel, (long) i * CHUNK_BYTES, Math.min(size, (long) (i + 1) * CHUNK_BYTES), kind));
+                }
+            } else {
+                ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+                    Thread t = new Thread(r, "collapsed-parser");
+                    t.setDaemon(true);
+                    return t;
+                });
+                try {
+                    List<Future<Profile>> futures = new ArrayList<>(chunks);
+                    for (int i = 0; i < chunks; i++) {
+                        long start = (long) i * CHUNK_BYTES;
+                        long end = Math.min(size, start + CHUNK_BYTES);
+                        futures.add(pool.submit(() -> parseChunk(channel, start, end, kind)));
+                    }
+                    for (Future<Profile> future : futures) {
+                        loaded.merge(future.get());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while parsing " + path, e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException io) {
+                        throw io;
+                    }
+                    throw new IllegalStateException("Failed to parse " + path, e.getCause());
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+            String unitWarning = unitWarning(kind, loaded);
+            if (unitWarning != null) {
+                System.out.printf("[WARN] %s: %s%n", path.getFileName(), unitWarning);
+                unitWarnings.add(path.getFileName() + ": " + unitWarning);
+            } else {
+                profiles[kind].merge(loaded);
+            }
+            System.out.printf("Loaded %d %s stacks (%d total weight) from %s in %.1f s (%d malformed lines skipped).%n",
+                    loaded.lines, KIND_LABELS[kind], loaded.total, path, (System.nanoTime() - startNanos) / 1e9,
+                    loaded.malformedLines);
+            inputs.add(String.format("%s (collapsed %s, %d stacks)", path.getFileName(), KIND_LABELS[kind], loaded.lines));
+        }
+    }
+
+    /**
+     * Collapsed counts carry no unit: alloc and lock files hold sample counts unless written with
+     * {@code --total} (bytes and wait nanoseconds). Sections B and C rank by bytes and by event
+     * counts, so a file in the other unit is reported here instead of merged.
+     */
+    private static String unitWarning(int kind, Profile loaded) {
+        if (loaded.lines == 0) {
+            return null;
+        }
+        if (kind == ALLOC && loaded.total < loaded.lines * MIN_TLAB_BYTES) {
+            return String.format(Locale.ROOT, "%d alloc weight over %d stacks looks like sample counts, not bytes; not merged into Section B. Re-record with --total.",
+                    loaded.total, loaded.lines);
+        }
+        if (kind == LOCK && loaded.total > loaded.lines * LOCK_SAMPLES_PER_STACK_MAX) {
+            return String.format(Locale.ROOT, "%d lock weight over %d stacks looks like --total wait nanoseconds, not samples; not merged into Section C. Re-record without --total.",
+                    loaded.total, loaded.lines);
+        }
+        return null;
+    }
+
+    /**
+     * Parses the lines that start in {@code [start, end)}. A line that begins before
+     * {@code start} belongs to the previous chunk; the last line may run past {@code end}.
+     */
+    private static Profile parseChunk(FileChannel channel, long start, long end, int kind) throws IOException {
+        Profile profile = new Profile();
+        byte[] buffer = new byte[READ_BUFFER_BYTES];
+        long bufferOffset = start; // file offset of buffer[0]
+        int filled = 0;
+        int lineStart = 0;
+        int scanFrom = 0;
+        boolean skipPartialLine = start > 0 && byteAt(channel, start - 1) != '\n';
+        boolean eof = false;
+
+        while (true) {
+            if (!eof) {
+                if (filled == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2); // a single line longer than the buffer
+                }
+                int read = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled), bufferOffset + filled);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    filled += read;
+                }
+            }
+            for (int i = scanFrom; i < filled; i++) {
+                if (buffer[i] != '\n') {
+                    continue;
+                }
+                if (skipPartialLine) {
+                    skipPartialLine = false;
+                } else if (bufferOffset + lineStart < end) {
+                    parseLine(buffer, lineStart, i, kind, profile);
+                } else {
+                    return profile;
+                }
+                lineStart = i + 1;
+            }
+            if (eof) {
+                if (lineStart < filled && !skipPartialLine && bufferOffset + lineStart < end) {
+                    parseLine(buffer, lineStart, filled, kind, profile);
+                }
+                return profile;
+            }
+            if (bufferOffset + lineStart >= end && !skipPartialLine) {
+                return profile;
+            }
+            // Keep the unfinished line at the front of the buffer and read on.
+            System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+            bufferOffset += lineStart;
+            filled -= lineStart;
+            scanFrom = filled;
+            lineStart = 0;
+        }
+    }
+
+    private static byte byteAt(FileChannel channel, long position) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        return channel.read(one, position) == 1 ? one.get(0) : (byte) '\n';
+    }
+
+    private static void parseLine(byte[] buffer, int from, int to, int kind, Profile profile) {
+        if (to > from && buffer[to - 1] == '\r') {
+            to--;
+        }
+        if (to == from) {
+            return;
+        }
+        profile.lines++;
+        int space = lastIndexOf(buffer, from, to, (byte) ' ');
+        if (space < from || space == to - 1) {
+            profile.malformedLines++;
+            return;
+        }
+        long weight = 0;
+        for (int i = space + 1; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                profile.malformedLines++;
+                return;
+            }
+            weight = weight * 10 + digit;
+        }
+        int leafStart = lastIndexOf(buffer, from, space, (byte) ';') + 1;
+        if (leafStart == 0) {
+            leafStart = from; // single-frame stack
+        }
+        String[] leaf = splitAnnotation(new String(buffer, leafStart, space - leafStart, StandardCharsets.UTF_8));
+        String name = leaf[0];
+        String annotation = leaf[1];
+
+        if (kind == ALLOC || kind == LOCK) {
+            // The leaf is the allocated or contended class (_[i] in TLAB / _[k] outside TLAB).
+            profile.add(jfrClassName(javaName(name)), JAVA, TIER_UNKNOWN, null, weight);
+            return;
+        }
+        int frameClass = frameClass(name, annotation);
+        if (frameClass == JAVA) {
+            profile.add(javaName(name), JAVA, tier(annotation), null, weight);
+            return;
+        }
+        // Native or kernel leaf: walk back to the nearest Java frame to attribute it.
+        String javaCaller = NO_JAVA_CALLER;
+        int frameEnd = leafStart - 1;
+        while (frameEnd > from) {
+            int frameStart = lastIndexOf(buffer, from, frameEnd, (byte) ';') + 1;
+            if (frameStart == 0) {
+                frameStart = from;
+            }
+            String[] frame = splitAnnotation(new String(buffer, frameStart, frameEnd - frameStart, StandardCharsets.UTF_8));
+            if (frameClass(frame[0], frame[1]) == JAVA) {
+                javaCaller = javaName(frame[0]);
+                break;
+            }
+            frameEnd = frameStart - 1;
+        }
+        profile.add(name, frameClass, TIER_NATIVE, javaCaller, weight);
+    }
+
+    /**
+     * {@code pkg/Type.method} to {@code pkg.Type.method}. The slash inside a hidden-class name
+     * ({@code Foo$$Lambda/0x...}) is part of the name, as in JFR, and is kept.
+     */
+    private static String javaName(String name) {
+        int hidden = name.lastIndexOf("$$Lambda");
+        if (hidden < 0) {
+            hidden = name.indexOf("/0x");
+        }
+        return hidden < 0 ? name.replace('/', '.') : name.substring(0, hidden).replace('/', '.') + name.substring(hidden);
+    }
+
+    /** {@code byte[]} / {@code java.lang.String[]} to the {@code [B} / {@code [Ljava.lang.String;} form JFR reports. */
+    private static String jfrClassName(String name) {
+        int dimensions = 0;
+        int end = name.length();
+        while (end >= 2 && name.startsWith("[]", end - 2)) {
+            dimensions++;
+            end -= 2;
+        }
+        if (dimensions == 0) {
+            return name;
+        }
+        String element = name.substring(0, end);
+        String descriptor = switch (element) {
+            case "boolean" -> "Z";
+            case "byte" -> "B";
+            case "char" -> "C";
+            case "short" -> "S";
+            case "int" -> "I";
+            case "long" -> "J";
+            case "float" -> "F";
+            case "double" -> "D";
+            default -> "L" + element + ";";
+        };
+        return "[".repeat(dimensions) + descriptor;
+    }
+
+    private static int lastIndexOf(byte[] buffer, int from, int to, byte value) {
+        for (int i = to - 1; i >= from; i--) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Splits async-profiler's frame annotation ({@code _[j]}, {@code _[i]}, {@code _[k]}, {@code _[0]}, {@code _[1]}). */
+    private static String[] splitAnnotation(String frame) {
+        int n = frame.length();
+        if (n > 4 && frame.charAt(n - 1) == ']' && frame.charAt(n - 3) == '[' && frame.charAt(n - 4) == '_') {
+            return new String[] {frame.substring(0, n - 4), String.valueOf(frame.charAt(n - 2))};
+        }
+        return new String[] {frame, null};
+    }
+
+    private static int frameClass(String name, String annotation) {
+        if (annotation != null) {
+            return switch (annotation) {
+                case "k" -> KERNEL;
+                case "j", "i", "0", "1" -> JAVA;
+                default -> NATIVE;
+            };
+        }
+        // Unannotated output: Java frames look like pkg.Type.method or pkg/Type.method.
+        int dot = name.lastIndexOf('.');
+        if (dot <= 0 || dot == name.length() - 1 || name.contains("::") || name.indexOf('(') >= 0
+                || name.indexOf(' ') >= 0 || name.startsWith("[") || name.endsWith(".so") || name.contains(".so.")) {
+            return NATIVE;
+        }
+        return JAVA;
+    }
+
+    private static int tier(String annotation) {
+        if (annotation == null) {
+            return TIER_UNKNOWN;
+        }
+        return switch (annotation) {
+            case "0" -> TIER_INTERPRETED;
+            case "j", "1" -> TIER_JIT;
+            case "i" -> TIER_INLINED;
+            default -> TIER_UNKNOWN;
+        };
+    }
+
+    // --- async-profiler JFR output ---
+
+    private void loadJfr(Path path) throws IOException {
+        long events = 0;
+        long used = 0;
+        try (RecordingFile rf = new RecordingFile(path)) {
+            while (rf.hasMoreEvents()) {
+                RecordedEvent e = rf.readEvent();
+                events++;
+                switch (e.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> addStack(profiles[CPU], e.getStackTrace(), 1);
+                    case "profiler.WallClockSample" -> addStack(profiles[WALL], e.getStackTrace(),
+                            e.hasField("samples") ? Math.max(1, e.getLong("samples")) : 1);
+                    case "jdk.ObjectAllocationInNewTLAB", "jdk.ObjectAllocationOutsideTLAB", "jdk.ObjectAllocationSample" -> {
+                        // A TLAB sample stands for the whole TLAB, as async-profiler's own --total view counts it.
+                        long bytes = e.hasField("weight") ? e.getLong("weight")
+                                : e.hasField("tlabSize") && e.getLong("tlabSize") > 0 ? e.getLong("tlabSize")
+                                : e.hasField("allocationSize") ? e.getLong("allocationSize") : 0;
+                        String className = className(e, "objectClass");
+                        profiles[ALLOC].add(className != null ? className : "<unknown class>", JAVA, TIER_UNKNOWN, null, bytes);
+                    }
+                    case "jdk.JavaMonitorEnter", "jdk.ThreadPark" -> {
+                        String lockName = className(e, "monitorClass");
+                        if (lockName == null) {
+                            lockName = className(e, "parkedClass");
+                        }
+                        profiles[LOCK].add(lockName != null ? lockName : "<unknown lock>", JAVA, TIER_UNKNOWN, null, 1);
+                    }
+                    case "profiler.Malloc" -> {
+                        long size = e.hasField("size") ? e.getLong("size") : 0;
+                        mallocBytes += size;
+                        mallocBytesByJavaCaller.computeIfAbsent(nearestJavaFrame(e.getStackTrace()), k -> new long[1])[0] += size;
+                    }
+                    default -> {
+                        continue;
+                    }
+                }
+                used++;
+            }
+        }
+        System.out.printf("Loaded %d of %d async-profiler JFR events from %s.%n", used, events, path);
+        inputs.add(String.format("%s (async-profiler JFR, %d events used)", path.getFileName(), used));
+    }
+
+    private static String className(RecordedEvent e, String field) {
+        if (!e.hasField(field)) {
+            return null;
+        }
+        RecordedClass recordedClass = e.getClass(field);
+        return recordedClass != null ? recordedClass.getName() : null;
+    }
+
+    private static void addStack(Profile profile, RecordedStackTrace stack, long weight) {
+        if (stack == null || stack.getFrames().isEmpty()) {
+            return;
+        }
+        RecordedFrame top = stack.getFrames().get(0);
+        int frameClass = frameClass(top);
+        String javaCaller = frameClass == JAVA ? null : nearestJavaFrame(stack);
+        profile.add(frameName(top), frameClass, frameClass == JAVA ? tier(top) : TIER_NATIVE, javaCaller, weight);
+    }
+
+    private static String nearestJavaFrame(RecordedStackTrace stack) {
+        if (stack != null) {
+            for (RecordedFrame frame : stack.getFrames()) {
+                if (frameClass(frame) == JAVA) {
+                    return frameName(frame);
+                }
+            }
+        }
+        return NO_JAVA_CALLER;
+    }
+
+    /** Same {@code Type.method} key as the JDK hotspot table; native frames carry no type. */
+    private static String frameName(RecordedFrame frame) {
+        RecordedMethod method = frame.getMethod();
+        if (method == null) {
+            return "<unknown frame>";
+        }
+        RecordedClass type = method.getType();
+        String typeName = type != null ? type.getName() : null;
+        return typeName == null || typeName.isEmpty() ? method.getName() : typeName + "." + method.getName();
+    }
+
+    private static int frameClass(RecordedFrame frame) {
+        String type = frame.getType();
+        if ("Kernel".equals(type)) {
+            return KERNEL;
+        }
+        return "Native".equals(type) || "C++".equals(type) ? NATIVE : JAVA;
+    }
+
+    private static int tier(RecordedFrame frame) {
+        String type = frame.getType();
+        if (type == null) {
+            return TIER_UNKNOWN;
+        }
+        return switch (type) {
+            case "Interpreted" -> TIER_INTERPRETED;
+            case "JIT compiled", "C1 compiled" -> TIER_JIT;
+            case "Inlined" -> TIER_INLINED;
+            default -> TIER_UNKNOWN;
+        };
+    }
+
+    // --- Merge into the JDK JFR aggregates and report ---
+
+    boolean hasData() {
+        return !inputs.isEmpty();
+    }
+
+    long cpuSamples() {
+        return profiles[CPU].total;
+    }
+
+    long allocatedBytes() {
+        return profiles[ALLOC].total;
+    }
+
+    /**
+     * Replaces the report's hotspot, allocation and contention maps, and the compiler section's
+     * frame tiers, with async-profiler's CPU leaf frames, allocated classes and lock classes for
+     * each kind it has data for. Callers take {@link #cpuSamples()} and {@link #allocatedBytes()}
+     * as the new totals when they are non-zero.
+     */
+    void mergeInto(Map<String, AtomicLong> cpuMethodSamples, Map<String, AtomicLong> allocationBytesByClass,
+                   Map<String, AtomicLong> contendedMonitorCounts, CompilerAnalysis compiler) {
+        replace(CPU, cpuMethodSamples);
+        replace(ALLOC, allocationBytesByClass);
+        replace(LOCK, contendedMonitorCounts);
+        if (profiles[CPU].total > 0) {
+            compiler.clearExecutionSamples();
+        }
+        profiles[CPU].selfByFrame.forEach((frame, slots) -> {
+            cpuMethodSamples.computeIfAbsent(frame, k -> new AtomicLong(0)).addAndGet(slots[0]);
+            for (int tier = TIER_INTERPRETED; tier <= TIER_NATIVE; tier++) {
+                if (slots[tier] > 0) {
+                    compiler.onExecutionSamples(frame, TIER_FRAME_TYPES[tier], slots[tier]);
+                }
+            }
+        });
+        profiles[ALLOC].selfByFrame.forEach((className, slots) ->
+                allocationBytesByClass.computeIfAbsent(className, k -> new AtomicLong(0)).addAndGet(slots[0]));
+        profiles[LOCK].selfByFrame.forEach((lockName, slots) ->
+                contendedMonitorCounts.computeIfAbsent(lockName, k -> new AtomicLong(0)).addAndGet(slots[0]));
+    }
+
+    private void replace(int kind, Map<String, AtomicLong> jdkWeights) {
+        if (profiles[kind].total > 0 && !jdkWeights.isEmpty()) {
+            replacedJdkWeight[kind] = jdkWeights.values().stream().mapToLong(AtomicLong::get).sum();
+            jdkWeights.clear();
+        }
+    }
+
+    private String replacedNote(int kind, String unit) {
+        return replacedJdkWeight[kind] < 0 ? ""
+                : String.format(Locale.ROOT, " (replacing %d JDK %s from the same run)", replacedJdkWeight[kind], unit);
+    }
+
+    /** Native/kernel share of CPU samples, or 0 without async-profiler CPU input. */
+    double nativeCpuShare() {
+        Profile cpu = profiles[CPU];
+        return cpu.total == 0 ? 0.0 : (double) (cpu.nativeWeight + cpu.kernelWeight) / cpu.total;
+    }
+
+    void printSection() {
+        if (!hasData()) {
+            System.out.println("[INFO] No async-profiler input. Pass --async-profiler <file> with collapsed stacks (-o collapsed) or async-profiler JFR output to see native frames and wall-clock time.");
+            return;
+        }
+        System.out.println("[INPUTS] " + String.join(", ", inputs));
+
+        Profile cpu = profiles[CPU];
+        if (cpu.total > 0) {
+            System.out.printf("[CPU] %d samples used for Section A%s: Java %.1f%%, native %.1f%%, kernel %.1f%%.%n",
+                    cpu.total, replacedNote(CPU, "samples"), pct(cpu.total - cpu.nativeWeight - cpu.kernelWeight, cpu.total),
+                    pct(cpu.nativeWeight, cpu.total), pct(cpu.kernelWeight, cpu.total));
+            if (cpu.nativeWeight + cpu.kernelWeight > 0) {
+                System.out.println("Top 5 native/kernel frames by self samples:");
+                cpu.selfByFrame.entrySet().stream()
+                        .filter(entry -> entry.getValue()[TIER_NATIVE] > 0)
+                        .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+                        .limit(5)
+                        .forEach(entry -> System.out.printf("  > %s: %d samples (%.1f%%)%n",
+                                entry.getKey(), entry.getValue()[0], pct(entry.getValue()[0], cpu.total)));
+                System.out.println("Native/kernel CPU by nearest Java caller:");
+                printTop(cpu.nativeByJavaCaller, cpu.total, "samples");
+            }
+            if (nativeCpuShare() > NATIVE_SHARE_WARN) {
+                System.out.printf("[MEDIUM] %.0f%% of CPU samples are in native or kernel code, which JDK JFR hotspots do not show. **Action:** Start from the Java callers above (JNI, compression, crypto, syscalls) rather than the Java-only hotspot list.%n",
+                        nativeCpuShare() * 100);
+            }
+        }
+
+        Profile wall = profiles[WALL];
+        if (wall.total > 0) {
+            System.out.printf("[WALL] %d wall-clock samples (running and waiting threads); native/kernel leaf %.1f%%.%n",
+                    wall.total, pct(wall.nativeWeight + wall.kernelWeight, wall.total));
+            System.out.println("Top 5 frames by wall-clock samples:");
+            printTop(wall.selfByFrame, wall.total, "samples");
+        }
+
+        if (profiles[ALLOC].total > 0) {
+            System.out.printf("[ALLOC] %.2f MB across %d classes used for Section B%s.%n",
+                    profiles[ALLOC].total / (1024.0 * 1024.0), profiles[ALLOC].selfByFrame.size(),
+                    replacedNote(ALLOC, "bytes"));
+        }
+        if (profiles[LOCK].total > 0) {
+            System.out.printf("[LOCK] %d lock samples across %d lock classes used for Section C%s.%n",
+                    profiles[LOCK].total, profiles[LOCK].selfByFrame.size(), replacedNote(LOCK, "events"));
+        }
+        unitWarnings.forEach(warning -> System.out.println("[WARN] " + warning));
+        if (mallocBytes > 0) {
+            System.out.printf("[MALLOC] %.2f MB sampled native allocations (profiler.Malloc). Top Java callers:%n",
+                    mallocBytes / (1024.0 * 1024.0));
+            printTop(mallocBytesByJavaCaller, mallocBytes, "bytes");
+        }
+    }
+
+    private static void printTop(Map<String, long[]> weights, long total, String unit) {
+        weights.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+                .limit(5)
+                .forEach(entry -> System.out.printf("  > %s: %d %s (%.1f%%)%n",
+                        entry.getKey(), entry.getValue()[0], unit, pct(entry.getValue()[0], total)));
+    }
+
+    private static double pct(long part, long total) {
+        return total == 0 ? 0.0 : part * 100.0 / total;
+    }
+}
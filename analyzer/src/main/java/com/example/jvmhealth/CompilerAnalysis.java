@@ -0,0 +1,385 @@
+package com.example.jvmhealth;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedObject;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * JIT compiler analysis for the JVM Health Report.
+ * <p>
+ * CPU hotspots say where time goes; this section says why a hot method may stay slow.
+ * It is built on {@code jdk.Compilation}, {@code jdk.CompilationFailure},
+ * {@code jdk.Deoptimization}, {@code jdk.CompilerInlining}, {@code jdk.CodeCacheFull}
+ * and {@code jdk.CodeCacheStatistics}, plus the frame type (interpreted / JIT compiled /
+ * inlined) of every {@code jdk.ExecutionSample} top frame. Method keys use the same
+ * {@code Type.method} format as the CPU hotspot table so the two can be joined.
+ * <p>
+ * {@code jdk.Compilation} is only recorded above a duration threshold (1000 ms in
+ * {@code default}, 100 ms in {@code profile}), so a method's highest recorded tier is only
+ * its final tier when the recording's threshold is 0; a fast C2 compile is otherwise missing.
+ */
+final class CompilerAnalysis {
+
+    /** A method deoptimized at least this many times is reported as a deopt storm. */
+    private static final int DEOPT_STORM_THRESHOLD = 10;
+    /** Code cache segments with less free space than this share are under pressure. */
+    private static final double CODE_CACHE_PRESSURE_RATIO = 0.10;
+    /** Frame-type shares are only trusted once a method has this many samples. */
+    private static final int MIN_FRAME_SAMPLES = 5;
+
+    private static final class MethodCompileInfo {
+        int highestLevel = -1;
+        long compilations = 0;
+        long osrCompilations = 0;
+    }
+
+    private static final class CodeCacheSegment {
+        long reservedBytes = -1;
+        long minUnallocatedBytes = Long.MAX_VALUE;
+        long fullCount = 0;
+    }
+
+    // --- jdk.Compilation / jdk.CompilationFailure ---
+    private final Map<String, MethodCompileInfo> compileInfoByMethod = new HashMap<>();
+    private final long[] compilationsByLevel = new long[5];
+    private long compilationCount = 0;
+    private long failedCompilationCount = 0;
+    private double totalCompileMillis = 0.0;
+    private final Map<String, AtomicLong> failureMessages = new HashMap<>();
+    // jdk.ActiveSetting: whether every threshold recorded for an event type id was 0
+    private final Map<Long, Boolean> zeroThresholdByEventTypeId = new HashMap<>();
+    private long compilationTypeId = -1;
+
+    // --- jdk.Deoptimization ---
+    private long deoptCount = 0;
+    private final Map<String, AtomicLong> deoptsByReason = new HashMap<>();
+    private final Map<String, AtomicLong> deoptsByMethod = new HashMap<>();
+
+    // --- jdk.CompilerInlining (disabled in default/profile settings) ---
+    private long inliningFailureCount = 0;
+    private final Map<String, AtomicLong> inliningFailuresByMessage = new HashMap<>();
+
+    // --- Code cache ---
+    private long codeCacheFullCount = 0;
+    private final Map<String, CodeCacheSegment> codeCacheSegments = new HashMap<>();
+
+    // --- Execution sample frame types per method: {interpreted, jit, inlined, native} ---
+    private final Map<String, long[]> frameTypesByMethod = new HashMap<>();
+
+    /**
+     * Consumes one JFR event; returns {@code false} when it is not a compiler event.
+     * {@code jdk.ActiveSetting} is read for the compilation threshold but left to other sections.
+     */
+    boolean onEvent(String eventName, RecordedEvent e) {
+        switch (eventName) {
+            case "jdk.Compilation" -> {
+                compilationTypeId = e.getEventType().getId();
+                onCompilation(e);
+            }
+            case "jdk.ActiveSetting" -> {
+                if (e.hasField("name") && "threshold".equals(e.getString("name"))) {
+                    String value = e.getString("value");
+                    boolean zero = value != null && value.trim().split("\\s+")[0].equals("0");
+                    zeroThresholdByEventTypeId.merge(e.getLong("id"), zero, Boolean::logicalAnd);
+                }
+                return false;
+            }
+            case "jdk.CompilationFailure" -> {
+                failedCompilationCount++;
+                String message = e.hasField("failureMessage") ? e.getString("failureMessage") : null;
+                failureMessages.computeIfAbsent(message != null ? message : "<no message>", k -> new AtomicLong(0))
+                        .incrementAndGet();
+            }
+            case "jdk.Deoptimization" -> {
+                deoptCount++;
+                String reason = e.hasField("reason") ? e.getString("reason") : null;
+                deoptsByReason.computeIfAbsent(reason != null ? reason : "unknown", k -> new AtomicLong(0))
+                        .incrementAndGet();
+                String method = methodKey(e.hasField("method") ? e.getValue("method") : null);
+                if (method != null) {
+                    deoptsByMethod.computeIfAbsent(method, k -> new AtomicLong(0)).incrementAndGet();
+                }
+            }
+            case "jdk.CompilerInlining" -> {
+                if (e.hasField("succeeded") && !e.getBoolean("succeeded")) {
+                    inliningFailureCount++;
+                    String message = e.hasField("message") ? e.getString("message") : null;
+                    inliningFailuresByMessage.computeIfAbsent(message != null ? message : "<no message>",
+                            k -> new AtomicLong(0)).incrementAndGet();
+                }
+            }
+            case "jdk.CodeCacheFull" -> {
+                codeCacheFullCount++;
+                segment(e).fullCount++;
+            }
+            case "jdk.CodeCacheStatistics" -> {
+                CodeCacheSegment segment = segment(e);
+                if (e.hasField("startAddress") && e.hasField("reservedTopAddress")) {
+                    segment.reservedBytes = e.getLong("reservedTopAddress") - e.getLong("startAddress");
+                }
+                if (e.hasField("unallocatedCapacity")) {
+                    segment.minUnallocatedBytes = Math.min(segment.minUnallocatedBytes, e.getLong("unallocatedCapacity"));
+                }
+                if (e.hasField("fullCount")) {
+                    segment.fullCount = Math.max(segment.fullCount, e.getLong("fullCount"));
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the frame type of an execution sample's top frame ("Interpreted",
+     * "JIT compiled", "Inlined" or "Native") for the given hotspot method key.
+     */
+    void onExecutionSample(String methodKey, String frameType) {
+        onExecutionSamples(methodKey, frameType, 1);
+    }
+
+    /** Drops the recorded frame types, for when async-profiler samples replace the JDK ones. */
+    void clearExecutionSamples() {
+        frameTypesByMethod.clear();
+    }
+
+    /** Weighted form for pre-aggregated profiles such as async-profiler collapsed stacks. */
+    void onExecutionSamples(String methodKey, String frameType, long samples) {
+        long[] counts = frameTypesByMethod.computeIfAbsent(methodKey, k -> new long[4]);
+        if (frameType == null) {
+            return;
+        }
+        switch (frameType) {
+            case "Interpreted" -> counts[0] += samples;
+            case "JIT compiled" -> counts[1] += samples;
+            case "Inlined" -> counts[2] += samples;
+            default -> counts[3] += samples;
+        }
+    }
+
+    private void onCompilation(RecordedEvent e) {
+        compilationCount++;
+        boolean succeeded = !e.hasField("succeded") || e.getBoolean("succeded"); // field name is misspelled in the JDK
+        if (!succeeded) {
+            failedCompilationCount++;
+            return;
+        }
+        int level = e.hasField("compileLevel") ? e.getShort("compileLevel") : -1;
+        if (level >= 0 && level < compilationsByLevel.length) {
+            compilationsByLevel[level]++;
+        }
+        double millis = e.getDuration() != null ? e.getDuration().toNanos() / 1_000_000.0 : 0.0;
+        totalCompileMillis += millis;
+
+        String method = methodKey(e.hasField("method") ? e.getValue("method") : null);
+        if (method != null) {
+            MethodCompileInfo info = compileInfoByMethod.computeIfAbsent(method, k -> new MethodCompileInfo());
+            info.compilations++;
+            info.highestLevel = Math.max(info.highestLevel, level);
+            if (e.hasField("isOsr") && e.getBoolean("isOsr")) {
+                info.osrCompilations++;
+            }
+        }
+    }
+
+    /**
+     * Short compile-tier label for a hotspot method, combining the highest tier seen in
+     * {@code jdk.Compilation} events with the frame types observed in execution samples.
+     */
+    String tierLabel(String methodKey) {
+        MethodCompileInfo info = compileInfoByMethod.get(methodKey);
+        long[] frames = frameTypesByMethod.get(methodKey);
+        long sampled = frames == null ? 0 : frames[0] + frames[1] + frames[2] + frames[3];
+
+        String tier;
+        if (info != null && info.highestLevel >= 1 && info.highestLevel <= 3 && !compilationThresholdZero()) {
+            tier = "tier unknown (compilation events below threshold)";
+        } else if (info != null && info.highestLevel >= 0) {
+            tier = levelName(info.highestLevel);
+        } else if (frames != null && frames[3] == sampled && sampled > 0) {
+            tier = "native";
+        } else if (frames != null && frames[0] == sampled && sampled > 0) {
+            tier = "interpreted";
+        } else if (sampled > 0) {
+            tier = "JIT compiled (tier not recorded)";
+        } else {
+            tier = "unknown";
+        }
+        if (info != null && info.osrCompilations > 0) {
+            tier += ", OSR";
+        }
+        if (info != null && info.compilations > 2) {
+            tier += ", recompiled " + info.compilations + "x";
+        }
+        if (sampled > 0 && frames[0] > 0) {
+            tier += String.format(", %.0f%% interpreted samples", frames[0] * 100.0 / sampled);
+        }
+        return tier;
+    }
+
+    boolean hasData() {
+        return compilationCount > 0 || deoptCount > 0 || codeCacheFullCount > 0 || !codeCacheSegments.isEmpty()
+                || failedCompilationCount > 0;
+    }
+
+    /** Triage score: code cache exhaustion is severe, deopt storms and interpreted hot code are moderate. */
+    double score(Map<String, AtomicLong> cpuMethodSamples) {
+        if (codeCacheFullCount > 0) {
+            return 2.0;
+        }
+        if (!deoptStorms().isEmpty() || !slowTierHotspots(cpuMethodSamples).isEmpty()) {
+            return 1.0;
+        }
+        return 0.0;
+    }
+
+    /** Prints the compiler section, joining compile tiers onto the top CPU methods. */
+    void printSection(Map<String, AtomicLong> cpuMethodSamples, long cpuSamples) {
+        if (!hasData() && frameTypesByMethod.isEmpty()) {
+            System.out.println("[INFO] No compiler events found. Record with settings=profile (jdk.Compilation threshold 100 ms) or enable jdk.Compilation/jdk.Deoptimization explicitly.");
+            return;
+        }
+
+        // --- Compilation totals ---
+        System.out.printf("[COMPILATION] %d compilations recorded (%d failed), total %.1f ms compile time. By tier: C1=%d (levels 1-3), C2=%d.%n",
+                compilationCount, failedCompilationCount, totalCompileMillis,
+                compilationsByLevel[1] + compilationsByLevel[2] + compilationsByLevel[3], compilationsByLevel[4]);
+        if (!failureMessages.isEmpty()) {
+            System.out.println("Top compilation failure reasons:");
+            printTop(failureMessages, 3, "failures");
+        }
+
+        // --- Hot methods joined with their tier ---
+        if (!cpuMethodSamples.isEmpty()) {
+            System.out.println("Top 5 CPU Hotspots by Compile Tier:");
+            topMethods(cpuMethodSamples, 5).forEach(entry -> System.out.printf("  > %s: %d samples (%.1f%%) -> %s%n",
+                    entry.getKey(), entry.getValue().get(),
+                    cpuSamples > 0 ? entry.getValue().get() * 100.0 / cpuSamples : 0.0,
+                    tierLabel(entry.getKey())));
+            List<String> slow = slowTierHotspots(cpuMethodSamples);
+            if (!slow.isEmpty()) {
+                System.out.printf("[MEDIUM] Hot methods still interpreted or C1-only: %s. **Action:** Check for compilation failures, huge methods (-XX:-DontCompileHugeMethods) or repeated deopts below.%n",
+                        String.join(", ", slow));
+            }
+        }
+
+        // --- Deoptimization ---
+        if (deoptCount == 0) {
+            System.out.println("[DEOPT] No deoptimizations recorded.");
+        } else {
+            System.out.printf("[DEOPT] %d deoptimizations. Top reasons:%n", deoptCount);
+            printTop(deoptsByReason, 5, "deopts");
+            System.out.println("Top deoptimized methods:");
+            printTop(deoptsByMethod, 5, "deopts");
+            List<String> storms = deoptStorms();
+            if (!storms.isEmpty()) {
+                System.out.printf("[MEDIUM] Deopt storm: %s deoptimized >= %d times. **Action:** Look for type-profile pollution (megamorphic call sites) or unstable branches on these paths.%n",
+                        String.join(", ", storms), DEOPT_STORM_THRESHOLD);
+            }
+        }
+
+        // --- Inlining ---
+        if (inliningFailureCount > 0) {
+            System.out.printf("[INLINING] %d inlining failures. Top reasons:%n", inliningFailureCount);
+            printTop(inliningFailuresByMessage, 5, "failures");
+        } else {
+            System.out.println("[INFO] No inlining failures recorded (jdk.CompilerInlining is off by default; enable it in a custom .jfc to see why calls were not inlined).");
+        }
+
+        // --- Code cache ---
+        codeCacheSegments.forEach((name, segment) -> {
+            if (segment.reservedBytes > 0 && segment.minUnallocatedBytes != Long.MAX_VALUE) {
+                double freeRatio = (double) segment.minUnallocatedBytes / segment.reservedBytes;
+                System.out.printf("[CODE CACHE] %s: min free %.1f MB of %.1f MB (%.1f%%), full events=%d.%n",
+                        name, segment.minUnallocatedBytes / (1024.0 * 1024.0), segment.reservedBytes / (1024.0 * 1024.0),
+                        freeRatio * 100.0, segment.fullCount);
+                if (freeRatio < CODE_CACHE_PRESSURE_RATIO && segment.fullCount == 0) {
+                    System.out.printf("[MEDIUM] Code cache segment '%s' is nearly full.%n", name);
+                }
+            }
+        });
+        if (codeCacheFullCount > 0) {
+            System.out.printf("[HIGH] Code cache filled up %d times; the JIT stops compiling and hot code runs interpreted. **Action:** Raise -XX:ReservedCodeCacheSize.%n",
+                    codeCacheFullCount);
+        }
+    }
+
+    private List<String> slowTierHotspots(Map<String, AtomicLong> cpuMethodSamples) {
+        return topMethods(cpuMethodSamples, 5)
+                .map(Map.Entry::getKey)
+                .filter(this::isSlowTier)
+                .toList();
+    }
+
+    private boolean isSlowTier(String methodKey) {
+        long[] frames = frameTypesByMethod.get(methodKey);
+        long sampled = frames == null ? 0 : frames[0] + frames[1] + frames[2] + frames[3];
+        if (sampled >= MIN_FRAME_SAMPLES && frames[0] * 2 >= sampled) {
+            return true; // at least half the samples ran in the interpreter
+        }
+        // Without a 0 threshold a C2 compile faster than it is unrecorded, so C1 may not be final.
+        MethodCompileInfo info = compileInfoByMethod.get(methodKey);
+        return info != null && info.highestLevel >= 1 && info.highestLevel <= 3 && compilationThresholdZero();
+    }
+
+    /** True when the recording's jdk.Compilation threshold is known to be 0, so every compile is recorded. */
+    private boolean compilationThresholdZero() {
+        return Boolean.TRUE.equals(zeroThresholdByEventTypeId.get(compilationTypeId));
+    }
+
+    private List<String> deoptStorms() {
+        return deoptsByMethod.entrySet().stream()
+                .filter(entry -> entry.getValue().get() >= DEOPT_STORM_THRESHOLD)
+                .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(AtomicLong::get).reversed()))
+                .map(Map.Entry::getKey)
+                .limit(5)
+                .toList();
+    }
+
+    private static Stream<Map.Entry<String, AtomicLong>> topMethods(Map<String, AtomicLong> counts, int limit) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(AtomicLong::get).reversed()))
+                .limit(limit);
+    }
+
+    private static void printTop(Map<String, AtomicLong> counts, int limit, String unit) {
+        topMethods(counts, limit).forEach(entry ->
+                System.out.printf("  > %s: %d %s%n", entry.getKey(), entry.getValue().get(), unit));
+    }
+
+    private CodeCacheSegment segment(RecordedEvent e) {
+        String name = "CodeCache";
+        if (e.hasField("codeBlobType")) {
+            String blobType = e.getString("codeBlobType");
+            name = blobType != null ? blobType : name;
+        }
+        return codeCacheSegments.computeIfAbsent(name, k -> new CodeCacheSegment());
+    }
+
+    private static String methodKey(Object value) {
+        if (value instanceof RecordedMethod method) {
+            return method.getType().getName() + "." + method.getName();
+        }
+        if (value instanceof RecordedObject object && object.hasField("type") && object.hasField("name")) {
+            return object.getString("type") + "." + object.getString("name");
+        }
+        return null;
+    }
+
+    private static String levelName(int level) {
+        return switch (level) {
+            case 0 -> "interpreted";
+            case 1, 2, 3 -> "C1 (tier " + level + ")";
+            case 4 -> "C2";
+            default -> "tier " + level;
+        };
+    }
+}
@@ -0,0 +1,538 @@
+package com.example.jvmhealth;
+
+import jdk.jfr.consumer.RecordedEvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Container resource analysis for the JVM Health Report (SPEC section A3).
+ * <p>
+ * Collects the JDK container events ({@code jdk.ContainerConfiguration},
+ * {@code jdk.ContainerCPUUsage}, {@code jdk.ContainerCPUThrottling},
+ * {@code jdk.ContainerMemoryUsage}) and, optionally, cgroup v2 {@code cpu.stat} /
+ * {@code memory.events} snapshots. Throttled CFS windows are then lined up with GC
+ * pauses and request latency samples so the triage can tell a quota-bound service
+ * apart from a code-bound one.
+ */
+final class ContainerAnalysis {
+
+    /** A sampling window counts as throttled once this share of its CFS periods was throttled. */
+    private static final double THROTTLED_WINDOW_RATIO = 0.05;
+
+    private record ThrottleSample(long epochMillis, long elapsedSlices, long throttledSlices, long throttledNanos) {
+    }
+
+    private record CpuUsageSample(long epochMillis, long cpuTimeNanos) {
+    }
+
+    private record CgroupSnapshot(Path source, Map<String, Long> cpuStat, Map<String, Long> memoryEvents,
+                                  String cpuMax, String memoryMax, long memoryCurrent) {
+    }
+
+    // --- jdk.ContainerConfiguration ---
+    private String containerType;
+    private long cpuQuota = -1;
+    private long cpuSlicePeriod = -1;
+    private long effectiveCpuCount = -1;
+    private long memoryLimit = -1;
+
+    // --- Periodic container samples ---
+    private final List<ThrottleSample> throttleSamples = new ArrayList<>();
+    private final List<CpuUsageSample> cpuUsageSamples = new ArrayList<>();
+    private long maxMemoryUsage = -1;
+    private long memoryFailCount = 0;
+
+    // --- Optional cgroup v2 snapshots (in command-line order) ---
+    private final List<CgroupSnapshot> cgroupSnapshots = new ArrayList<>();
+
+    // --- Optional request latency samples (epochMillis, latencyMicros) ---
+    private long[] latencyEpochMillis = new long[1024];
+    private long[] latencyMicros = new long[1024];
+    private int latencyCount = 0;
+
+    /**
+     * Consumes one JFR event. Returns {@code false} when the event is not a container
+     * event so the caller can keep routing it.
+     */
+    boolean onEvent(String eventName, RecordedEvent e) {
+        switch (eventName) {
+            case "jdk.ContainerConfiguration" -> {
+                containerType = e.hasField("containerType") ? e.getString("containerType") : containerType;
+                cpuQuota = longField(e, "cpuQuota", cpuQuota);
+                cpuSlicePeriod = longField(e, "cpuSlicePeriod", cpuSlicePeriod);
+                effectiveCpuCount = longField(e, "effectiveCpuCount", effectiveCpuCount);
+                memoryLimit = longField(e, "memoryLimit", memoryLimit);
+            }
+            case "jdk.ContainerCPUThrottling" -> throttleSamples.add(new ThrottleSample(
+                    e.getStartTime().toEpochMilli(),
+                    longField(e, "cpuElapsedSlices", 0),
+                    longField(e, "cpuThrottledSlices", 0),
+                    longField(e, "cpuThrottledTime", 0)));
+            case "jdk.ContainerCPUUsage" -> cpuUsageSamples.add(new CpuUsageSample(
+                    e.getStartTime().toEpochMilli(), longField(e, "cpuTime", 0)));
+            case "jdk.ContainerMemoryUsage" -> {
+                maxMemoryUsage = Math.max(maxMemoryUsage, longField(e, "memoryUsage", -1));
+                memoryFailCount = Math.max(memoryFailCount, longField(e, "memoryFailCount", 0));
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads one cgroup v2 snapshot. {@code path} is either a cgroup directory (for
+     * example a copy of {@code /sys/fs/cgroup}) or a single {@code cpu.stat} /
+     * {@code memory.events} file. Repeat the option to supply snapshots over time;
+     * counters are diffed between the first and last snapshot.
+     */
+    void addCgroupSnapshot(Path path) throws IOException {
+        Map<String, Long> cpuStat = new HashMap<>();
+        Map<String, Long> memoryEvents = new HashMap<>();
+        String cpuMax = null;
+        String memoryMax = null;
+        long memoryCurrent = -1;
+
+        if (Files.isDirectory(path)) {
+            Path cpuStatFile = path.resolve("cpu.stat");
+            Path memoryEventsFile = path.resolve("memory.events");
+            if (Files.exists(cpuStatFile)) {
+                readKeyValues(cpuStatFile, cpuStat);
+            }
+            if (Files.exists(memoryEventsFile)) {
+                readKeyValues(memoryEventsFile, memoryEvents);
+            }
+            cpuMax = readFirstLine(path.resolve("cpu.max"));
+            memoryMax = readFirstLine(path.resolve("memory.max"));
+            String current = readFirstLine(path.resolve("memory.current"));
+            if (current != null) {
+                memoryCurrent = parseLongOrDefault(current, -1);
+            }
+        } else {
+            String fileName = path.getFileName().toString();
+            if (fileName.startsWith("memory.events")) {
+                readKeyValues(path, memoryEvents);
+            } else {
+                readKeyValues(path, cpuStat);
+            }
+        }
+
+        System.out.printf("Loaded cgroup snapshot %s (cpu.stat keys=%d, memory.events keys=%d).%n",
+                path, cpuStat.size(), memoryEvents.size());
+        cgroupSnapshots.add(new CgroupSnapshot(path, cpuStat, memoryEvents, cpuMax, memoryMax, memoryCurrent));
+    }
+
+    /**
+     * Loads request latency samples from a CSV file of {@code epochMillis,latencyMicros}
+     * rows. A header line and any extra columns are ignored.
+     */
+    void loadLatencySamples(Path csvPath) throws IOException {
+        long skipped = 0;
+        try (BufferedReader br = Files.newBufferedReader(csvPath)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length < 2) {
+                    skipped++;
+                    continue;
+                }
+                long epochMillis = parseLongOrDefault(parts[0].trim(), -1);
+                long micros = parseLongOrDefault(parts[1].trim(), -1);
+                if (epochMillis < 0 || micros < 0) {
+                    skipped++;
+                    continue;
+                }
+                addLatencySample(epochMillis, micros);
+            }
+        }
+        System.out.printf("Loaded %d request latency samples from %s (%d lines skipped).%n",
+                latencyCount, csvPath, skipped);
+    }
+
+    private void addLatencySample(long epochMillis, long micros) {
+        if (latencyCount == latencyEpochMillis.length) {
+            latencyEpochMillis = Arrays.copyOf(latencyEpochMillis, latencyCount * 2);
+            latencyMicros = Arrays.copyOf(latencyMicros, latencyCount * 2);
+        }
+        latencyEpochMillis[latencyCount] = epochMillis;
+        latencyMicros[latencyCount] = micros;
+        latencyCount++;
+    }
+
+    boolean hasData() {
+        return containerType != null || !throttleSamples.isEmpty() || !cpuUsageSamples.isEmpty()
+                || maxMemoryUsage >= 0 || !cgroupSnapshots.isEmpty();
+    }
+
+    /**
+     * Share of CFS periods that were throttled over the observed interval, or -1 when
+     * neither JFR nor cgroup data reports throttling.
+     */
+    double throttledPeriodRatio() {
+        if (!throttleSamples.isEmpty()) {
+            ThrottleSample first = throttleSamples.get(0);
+            ThrottleSample last = throttleSamples.get(throttleSamples.size() - 1);
+            long elapsed = last.elapsedSlices - first.elapsedSlices;
+            long throttled = last.throttledSlices - first.throttledSlices;
+            if (throttleSamples.size() < 2 || elapsed <= 0) {
+                // A single sample (or a counter reset) only gives us totals since container start.
+                elapsed = last.elapsedSlices;
+                throttled = last.throttledSlices;
+            }
+            if (elapsed > 0) {
+                return (double) throttled / elapsed;
+            }
+        }
+        long[] cgroupDelta = cgroupCounterDelta("nr_periods", "nr_throttled");
+        if (cgroupDelta != null && cgroupDelta[0] > 0) {
+            return (double) cgroupDelta[1] / cgroupDelta[0];
+        }
+        return -1;
+    }
+
+    /** Memory-limit pressure: OOM kills from cgroup events or JFR memory fail counts. */
+    long memoryLimitHits() {
+        long hits = memoryFailCount;
+        long[] cgroupDelta = cgroupCounterDelta("max", "oom_kill");
+        if (cgroupDelta != null) {
+            hits = Math.max(hits, cgroupDelta[0] + cgroupDelta[1]);
+        }
+        return hits;
+    }
+
+    /** Container memory limit in bytes from JFR or cgroup {@code memory.max}, or -1 when unlimited. */
+    long memoryLimitBytes() {
+        if (memoryLimit > 0) {
+            return memoryLimit;
+        }
+        for (CgroupSnapshot snapshot : cgroupSnapshots) {
+            if (snapshot.memoryMax != null) {
+                long max = parseLongOrDefault(snapshot.memoryMax.trim(), -1);
+                if (max > 0) {
+                    return max;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /** Triage score for CPU quota throttling (0 = not throttled, 3 = severely quota-bound). */
+    double quotaScore() {
+        double ratio = throttledPeriodRatio();
+        if (ratio >= 0.5) return 3.0;
+        if (ratio >= 0.2) return 2.0;
+        if (ratio >= THROTTLED_WINDOW_RATIO) return 1.0;
+        return 0.0;
+    }
+
+    /**
+     * Prints the container section of the report, correlating throttled windows with
+     * the supplied GC pause timeline.
+     */
+    void printSection(List<JvmHealthAnalyzer.GcPause> gcPauses) {
+        if (!hasData()) {
+            System.out.println("[INFO] No container events or cgroup snapshots found. Either the JVM ran outside a container or the recording omitted jdk.Container* events.");
+            if (latencyCount > 0) {
+                System.out.println("[INFO] Request latency samples were loaded but there are no throttling windows to correlate them with.");
+            }
+            return;
+        }
+
+        // --- Limits ---
+        System.out.printf("[LIMITS] Container type=%s, CPU quota=%s, effective CPUs=%s, memory limit=%s.%n",
+                containerType != null ? containerType : "unknown",
+                describeQuota(),
+                effectiveCpuCount > 0 ? Long.toString(effectiveCpuCount) : "unknown",
+                memoryLimit > 0 ? formatMb(memoryLimit) : describeCgroupMemoryMax());
+
+        // --- CPU usage vs. allowance ---
+        double allowedCpus = allowedCpus();
+        if (cpuUsageSamples.size() >= 2) {
+            CpuUsageSample first = cpuUsageSamples.get(0);
+            CpuUsageSample last = cpuUsageSamples.get(cpuUsageSamples.size() - 1);
+            long wallMillis = last.epochMillis - first.epochMillis;
+            if (wallMillis > 0) {
+                double avgCpus = (last.cpuTimeNanos - first.cpuTimeNanos) / 1_000_000.0 / wallMillis;
+                if (allowedCpus > 0) {
+                    System.out.printf("[CPU USAGE] Container averaged %.2f CPUs of %.2f allowed (%.1f%% of quota).%n",
+                            avgCpus, allowedCpus, avgCpus / allowedCpus * 100.0);
+                } else {
+                    System.out.printf("[CPU USAGE] Container averaged %.2f CPUs (no quota configured).%n", avgCpus);
+                }
+            }
+        }
+
+        // --- Throttling totals ---
+        double ratio = throttledPeriodRatio();
+        if (ratio >= 0) {
+            System.out.printf("[THROTTLING] %.1f%% of CFS periods were throttled%s.%n", ratio * 100.0, describeThrottledTime());
+        } else {
+            System.out.println("[INFO] No CPU throttling counters available (jdk.ContainerCPUThrottling or cpu.stat).");
+        }
+
+        // --- Memory ---
+        if (maxMemoryUsage >= 0) {
+            System.out.printf("[MEMORY] Peak container memory usage %s%s.%n", formatMb(maxMemoryUsage),
+                    memoryLimit > 0 ? String.format(" (%.1f%% of limit)", maxMemoryUsage * 100.0 / memoryLimit) : "");
+        } else {
+            cgroupSnapshots.stream()
+                    .filter(s -> s.memoryCurrent >= 0)
+                    .reduce((a, b) -> b)
+                    .ifPresent(s -> System.out.printf("[MEMORY] memory.current=%s in snapshot %s.%n",
+                            formatMb(s.memoryCurrent), s.source));
+        }
+        long memoryHits = memoryLimitHits();
+        if (memoryHits > 0) {
+            System.out.printf("[CRITICAL] Container memory limit was hit %d times (memory.events max/oom_kill or memoryFailCount). **Action:** Compare heap + off-heap footprint against the limit before tuning code.%n",
+                    memoryHits);
+        }
+
+        // --- Correlation with GC pauses and request latency ---
+        printWindowCorrelation(gcPauses);
+
+        if (quotaScore() >= 2.0) {
+            System.out.println("[HIGH] You are quota-bound, not code-bound. **Action:** Raise the CPU limit (or lower GC/JIT thread counts with -XX:ParallelGCThreads / -XX:CICompilerCount) before optimizing hot methods.");
+        } else if (quotaScore() > 0) {
+            System.out.println("[MEDIUM] Occasional CFS throttling observed. **Action:** Check whether throttled windows line up with GC cycles above; bursts of GC worker threads commonly exhaust the quota.");
+        }
+    }
+
+    private void printWindowCorrelation(List<JvmHealthAnalyzer.GcPause> gcPauses) {
+        List<ThrottleSample> samples = new ArrayList<>(throttleSamples);
+        samples.sort(Comparator.comparingLong(ThrottleSample::epochMillis));
+        if (samples.size() < 2) {
+            System.out.println("[INFO] Fewer than two jdk.ContainerCPUThrottling samples; per-window correlation with GC pauses and latency is unavailable.");
+            return;
+        }
+
+        List<JvmHealthAnalyzer.GcPause> pauses = new ArrayList<>(gcPauses);
+        pauses.sort(Comparator.comparingLong(JvmHealthAnalyzer.GcPause::startEpochMillis));
+        sortLatencySamplesByTime();
+
+        int throttledWindows = 0;
+        int quietWindows = 0;
+        double throttledMaxPauseSum = 0.0;
+        double quietMaxPauseSum = 0.0;
+        List<Long> throttledLatencies = new ArrayList<>();
+        List<Long> quietLatencies = new ArrayList<>();
+
+        for (int i = 1; i < samples.size(); i++) {
+            ThrottleSample prev = samples.get(i - 1);
+            ThrottleSample cur = samples.get(i);
+            long elapsed = cur.elapsedSlices - prev.elapsedSlices;
+            if (elapsed <= 0) {
+                continue; // counter reset or idle window
+            }
+            boolean throttled = (double) (cur.throttledSlices - prev.throttledSlices) / elapsed >= THROTTLED_WINDOW_RATIO;
+
+            double maxPause = 0.0;
+            for (JvmHealthAnalyzer.GcPause pause : pauses) {
+                if (pause.startEpochMillis() >= cur.epochMillis) {
+                    break;
+                }
+                if (pause.startEpochMillis() >= prev.epochMillis) {
+                    maxPause = Math.max(maxPause, pause.pauseMillis());
+                }
+            }
+            List<Long> bucket = throttled ? throttledLatencies : quietLatencies;
+            collectLatencies(prev.epochMillis, cur.epochMillis, bucket);
+
+            if (throttled) {
+                throttledWindows++;
+                throttledMaxPauseSum += maxPause;
+            } else {
+                quietWindows++;
+                quietMaxPauseSum += maxPause;
+            }
+        }
+
+        System.out.printf("[CORRELATION] %d of %d sampling windows were throttled (>= %.0f%% of periods).%n",
+                throttledWindows, throttledWindows + quietWindows, THROTTLED_WINDOW_RATIO * 100);
+        if (throttledWindows > 0 && quietWindows > 0) {
+            double throttledAvg = throttledMaxPauseSum / throttledWindows;
+            double quietAvg = quietMaxPauseSum / quietWindows;
+            System.out.printf("  > Avg worst GC pause per window: throttled=%.2f ms vs. unthrottled=%.2f ms.%n", throttledAvg, quietAvg);
+            if (quietAvg > 0 && throttledAvg > quietAvg * 2) {
+                System.out.println("[HIGH] GC pauses at least double inside throttled windows: GC worker threads are being descheduled by the CPU quota.");
+            }
+        }
+        if (!throttledLatencies.isEmpty() || !quietLatencies.isEmpty()) {
+            System.out.printf("  > Request latency p99: throttled=%s vs. unthrottled=%s (%d / %d requests).%n",
+                    formatP99(throttledLatencies), formatP99(quietLatencies),
+                    throttledLatencies.size(), quietLatencies.size());
+        }
+    }
+
+    private void sortLatencySamplesByTime() {
+        // Load generators write samples in completion order, which is nearly sorted; only
+        // pay for a full sort when an out-of-order row is actually present.
+        boolean sorted = true;
+        for (int i = 1; i < latencyCount && sorted; i++) {
+            sorted = latencyEpochMillis[i - 1] <= latencyEpochMillis[i];
+        }
+        if (sorted) {
+            return;
+        }
+        Integer[] order = new Integer[latencyCount];
+        for (int i = 0; i < latencyCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(idx -> latencyEpochMillis[idx]));
+        long[] times = new long[latencyCount];
+        long[] micros = new long[latencyCount];
+        for (int i = 0; i < latencyCount; i++) {
+            times[i] = latencyEpochMillis[order[i]];
+            micros[i] = latencyMicros[order[i]];
+        }
+        latencyEpochMillis = times;
+        latencyMicros = micros;
+    }
+
+    private void collectLatencies(long fromMillis, long toMillis, List<Long> bucket) {
+        int lo = 0;
+        int hi = latencyCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (latencyEpochMillis[mid] < fromMillis) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        for (int i = lo; i < latencyCount && latencyEpochMillis[i] < toMillis; i++) {
+            bucket.add(latencyMicros[i]);
+        }
+    }
+
+    private static String formatP99(List<Long> latencies) {
+        if (latencies.isEmpty()) {
+            return "n/a";
+        }
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        int index = (int) Math.ceil(sorted.length * 0.99) - 1;
+        return String.format("%.2f ms", sorted[Math.max(index, 0)] / 1000.0);
+    }
+
+    private double allowedCpus() {
+        if (cpuQuota > 0 && cpuSlicePeriod > 0) {
+            return (double) cpuQuota / cpuSlicePeriod;
+        }
+        for (CgroupSnapshot snapshot : cgroupSnapshots) {
+            if (snapshot.cpuMax != null) {
+                String[] parts = snapshot.cpuMax.trim().split("\\s+");
+                if (parts.length == 2 && !"max".equals(parts[0])) {
+                    long quota = parseLongOrDefault(parts[0], -1);
+                    long period = parseLongOrDefault(parts[1], -1);
+                    if (quota > 0 && period > 0) {
+                        return (double) quota / period;
+                    }
+                }
+            }
+        }
+        return effectiveCpuCount > 0 ? effectiveCpuCount : -1;
+    }
+
+    private String describeQuota() {
+        double allowed = allowedCpus();
+        if (cpuQuota > 0 && cpuSlicePeriod > 0) {
+            return String.format("%.2f CPUs (%d/%d us)", allowed, cpuQuota, cpuSlicePeriod);
+        }
+        return allowed > 0 ? String.format("%.2f CPUs", allowed) : "unlimited";
+    }
+
+    private String describeCgroupMemoryMax() {
+        for (CgroupSnapshot snapshot : cgroupSnapshots) {
+            if (snapshot.memoryMax != null) {
+                long max = parseLongOrDefault(snapshot.memoryMax.trim(), -1);
+                return max > 0 ? formatMb(max) : snapshot.memoryMax.trim();
+            }
+        }
+        return "unlimited";
+    }
+
+    private String describeThrottledTime() {
+        if (!throttleSamples.isEmpty()) {
+            ThrottleSample first = throttleSamples.get(0);
+            ThrottleSample last = throttleSamples.get(throttleSamples.size() - 1);
+            long nanos = throttleSamples.size() >= 2 && last.throttledNanos >= first.throttledNanos
+                    ? last.throttledNanos - first.throttledNanos : last.throttledNanos;
+            return String.format(", %.1f s spent throttled", nanos / 1_000_000_000.0);
+        }
+        long[] cgroupDelta = cgroupCounterDelta("throttled_usec", "throttled_usec");
+        if (cgroupDelta != null) {
+            return String.format(", %.1f s spent throttled (cpu.stat)", cgroupDelta[0] / 1_000_000.0);
+        }
+        return "";
+    }
+
+    /**
+     * Returns {@code [delta(keyA), delta(keyB)]} between the first and last snapshot
+     * that contain both keys (or the raw values of a single snapshot), or null.
+     */
+    private long[] cgroupCounterDelta(String keyA, String keyB) {
+        List<CgroupSnapshot> matching = cgroupSnapshots.stream()
+                .filter(s -> {
+                    Map<String, Long> source = s.cpuStat.containsKey(keyA) ? s.cpuStat : s.memoryEvents;
+                    return source.containsKey(keyA) && source.containsKey(keyB);
+                })
+                .toList();
+        if (matching.isEmpty()) {
+            return null;
+        }
+        Map<String, Long> first = counters(matching.get(0), keyA);
+        Map<String, Long> last = counters(matching.get(matching.size() - 1), keyA);
+        if (matching.size() == 1) {
+            return new long[] {last.get(keyA), last.get(keyB)};
+        }
+        return new long[] {last.get(keyA) - first.get(keyA), last.get(keyB) - first.get(keyB)};
+    }
+
+    private static Map<String, Long> counters(CgroupSnapshot snapshot, String key) {
+        return snapshot.cpuStat.containsKey(key) ? snapshot.cpuStat : snapshot.memoryEvents;
+    }
+
+    private static void readKeyValues(Path file, Map<String, Long> target) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            lines.map(String::trim)
+                    .map(line -> line.split("\\s+"))
+                    .filter(parts -> parts.length == 2)
+                    .forEach(parts -> target.put(parts[0], parseLongOrDefault(parts[1], 0)));
+        }
+    }
+
+    private static String readFirstLine(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (BufferedReader br = Files.newBufferedReader(file)) {
+            return br.readLine();
+        }
+    }
+
+    private static long longField(RecordedEvent e, String field, long fallback) {
+        return e.hasField(field) ? e.getLong(field) : fallback;
+    }
+
+    private static long parseLongOrDefault(String value, long fallback) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            return fallback;
+        }
+    }
+
+    private static String formatMb(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
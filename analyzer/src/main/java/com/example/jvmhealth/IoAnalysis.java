@@ -0,0 +1,474 @@
+package com.example.jvmhealth;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * I/O and thread wall-clock analysis for the JVM Health Report (SPEC section A4).
+ * <p>
+ * Socket and file latency come from {@code jdk.SocketRead}, {@code jdk.SocketWrite},
+ * {@code jdk.FileRead} and {@code jdk.FileWrite}, grouped per endpoint / path into a
+ * fixed-bucket latency histogram with bytes/sec and the application stacks that block.
+ * The per-thread breakdown splits each thread's time into RUNNABLE on CPU
+ * ({@code jdk.ExecutionSample}), in other native code ({@code jdk.NativeMethodSample}),
+ * blocked in socket/file I/O, parked/waiting and monitor-blocked. That split answers whether
+ * adding threads or cutting I/O would raise throughput. A native sample only counts as I/O
+ * when its top frames are a socket or file read, write or connect; selector and accept waits
+ * (an idle {@code EPoll.wait} loop is native-sampled all the time) stay in Native, which does
+ * not feed the verdict.
+ * <p>
+ * Note that JFR records I/O, park and monitor events only above a threshold (20 ms in
+ * {@code default}, 10 ms in {@code profile}); short operations are not counted. CPU and
+ * native time are samples x period, but each period JFR samples at most 5 Java threads and
+ * 1 thread in native code, so with more threads running at once both are lower bounds; the
+ * section reports how often the Java sampler hit its cap.
+ */
+final class IoAnalysis {
+
+    /** Histogram bucket upper bounds in milliseconds; the last bucket is open-ended. */
+    private static final double[] BUCKET_BOUNDS_MS = {1, 5, 10, 20, 50, 100, 250, 500, 1000};
+    private static final String[] BUCKET_LABELS =
+            {"<1", "<5", "<10", "<20", "<50", "<100", "<250", "<500", "<1s", ">=1s"};
+    /** Sampling periods used when the recording carries no jdk.ActiveSetting for them. */
+    private static final long DEFAULT_EXECUTION_SAMPLE_PERIOD_MS = 20;
+    private static final long DEFAULT_NATIVE_SAMPLE_PERIOD_MS = 20;
+    /** Threads the JFR sampler records per period (JfrThreadSampler's Java and native limits). */
+    private static final int JAVA_SAMPLES_PER_PERIOD = 5;
+    private static final int NATIVE_SAMPLES_PER_PERIOD = 1;
+    /** How many top frames of a native sample are searched for a socket/file call. */
+    private static final int NATIVE_IO_FRAME_DEPTH = 6;
+    /** JDK classes whose read/write/connect methods block on a socket or file. */
+    private static final Set<String> IO_TYPES = Set.of(
+            "sun.nio.ch.SocketDispatcher", "sun.nio.ch.DatagramDispatcher", "sun.nio.ch.FileDispatcherImpl",
+            "sun.nio.ch.UnixFileDispatcherImpl", "sun.nio.ch.IOUtil", "sun.nio.ch.Net", "sun.nio.ch.NioSocketImpl",
+            "sun.nio.ch.SocketChannelImpl", "java.io.FileInputStream", "java.io.FileOutputStream",
+            "java.io.RandomAccessFile", "java.net.SocketInputStream", "java.net.SocketOutputStream",
+            "java.net.PlainSocketImpl", "java.net.AbstractPlainSocketImpl");
+    // read0, readv0, pread0, readBytes, socketRead0, implRead, connect0, finishConnect, force0, ...; not poll/accept/wait
+    private static final Pattern IO_METHOD =
+            Pattern.compile("^(?:(?:impl|socket|finish|check|p)?(?:read|write|connect)|force)", Pattern.CASE_INSENSITIVE);
+
+    private static final int CPU = 0;
+    private static final int NATIVE = 1;
+    private static final int IO = 2;
+    private static final int PARKED = 3;
+    private static final int MONITOR = 4;
+    private static final String[] STATE_LABELS = {"CPU", "Native", "I/O", "Parked/Wait", "Monitor"};
+
+    private static final class LatencyHistogram {
+        final long[] buckets = new long[BUCKET_LABELS.length];
+        long count = 0;
+        long bytes = 0;
+        double totalMillis = 0.0;
+        double maxMillis = 0.0;
+
+        void add(double millis, long byteCount) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && millis >= BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket]++;
+            count++;
+            bytes += Math.max(byteCount, 0);
+            totalMillis += millis;
+            maxMillis = Math.max(maxMillis, millis);
+        }
+
+        /** Upper bound of the bucket holding the given percentile (max for the open bucket). */
+        double percentileUpperBound(double percentile) {
+            long rank = (long) Math.ceil(count * percentile);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return i < BUCKET_BOUNDS_MS.length ? Math.min(BUCKET_BOUNDS_MS[i], maxMillis) : maxMillis;
+                }
+            }
+            return maxMillis;
+        }
+    }
+
+    private static final class ThreadTime {
+        final long[] samples = new long[3]; // CPU, NATIVE (other native code), IO (native socket/file call) sample counts
+        final double[] millis = new double[5];
+        long firstSeenMillis = Long.MAX_VALUE;
+        long lastSeenMillis = Long.MIN_VALUE;
+
+        void seen(long startMillis, long endMillis) {
+            firstSeenMillis = Math.min(firstSeenMillis, startMillis);
+            lastSeenMillis = Math.max(lastSeenMillis, endMillis);
+        }
+    }
+
+    private final Map<String, LatencyHistogram> socketByEndpoint = new HashMap<>();
+    private final Map<String, LatencyHistogram> fileByPath = new HashMap<>();
+    private final Map<String, LatencyHistogram> blockingStacks = new HashMap<>();
+    private final Map<String, ThreadTime> threads = new HashMap<>();
+    private long firstEventMillis = Long.MAX_VALUE;
+    private long lastEventMillis = Long.MIN_VALUE;
+
+    // jdk.ActiveSetting resolution of sampling periods
+    private final Map<Long, String> periodByEventTypeId = new HashMap<>();
+    private long executionSampleTypeId = -1;
+    private long nativeSampleTypeId = -1;
+    // jdk.ExecutionSample count by start millisecond, to find sampling periods that hit the cap
+    private final Map<Long, int[]> executionSamplesByMillis = new HashMap<>();
+
+    /** Consumes I/O, native-sample and setting events; returns {@code false} for anything else. */
+    boolean onEvent(String eventName, RecordedEvent e) {
+        switch (eventName) {
+            case "jdk.SocketRead", "jdk.SocketWrite" -> {
+                String endpoint = endpoint(e);
+                long bytes = e.hasField("bytesRead") ? e.getLong("bytesRead")
+                        : e.hasField("bytesWritten") ? e.getLong("bytesWritten") : 0;
+                recordIo(e, socketByEndpoint, ("jdk.SocketRead".equals(eventName) ? "read  " : "write ") + endpoint, bytes);
+            }
+            case "jdk.FileRead", "jdk.FileWrite" -> {
+                String path = e.hasField("path") ? e.getString("path") : null;
+                long bytes = e.hasField("bytesRead") ? e.getLong("bytesRead")
+                        : e.hasField("bytesWritten") ? e.getLong("bytesWritten") : 0;
+                recordIo(e, fileByPath, ("jdk.FileRead".equals(eventName) ? "read  " : "write ")
+                        + (path != null ? path : "<unknown path>"), bytes);
+            }
+            case "jdk.NativeMethodSample" -> {
+                nativeSampleTypeId = e.getEventType().getId();
+                ThreadTime time = thread(e, "sampledThread");
+                if (time != null) {
+                    time.samples[isNativeIo(e.getStackTrace()) ? IO : NATIVE]++;
+                }
+            }
+            case "jdk.ActiveSetting" -> {
+                if (e.hasField("name") && "period".equals(e.getString("name"))) {
+                    periodByEventTypeId.put(e.getLong("id"), e.getString("value"));
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Feeds the thread-state events the core analyzer already handles
+     * ({@code jdk.ExecutionSample}, {@code jdk.ThreadPark}, {@code jdk.ThreadSleep},
+     * {@code jdk.JavaMonitorWait}, {@code jdk.JavaMonitorEnter}) into the wall-clock breakdown.
+     */
+    void onThreadStateEvent(String eventName, RecordedEvent e) {
+        if ("jdk.ExecutionSample".equals(eventName)) {
+            executionSampleTypeId = e.getEventType().getId();
+            executionSamplesByMillis.computeIfAbsent(e.getStartTime().toEpochMilli(), k -> new int[1])[0]++;
+            ThreadTime time = thread(e, "sampledThread");
+            if (time != null) {
+                time.samples[CPU]++;
+            }
+            return;
+        }
+        ThreadTime time = thread(e, null);
+        if (time == null) {
+            return;
+        }
+        int state = "jdk.JavaMonitorEnter".equals(eventName) ? MONITOR : PARKED;
+        time.millis[state] += millis(e.getDuration());
+    }
+
+    boolean hasData() {
+        return !socketByEndpoint.isEmpty() || !fileByPath.isEmpty() || !threads.isEmpty();
+    }
+
+    /**
+     * Share of active thread time (CPU, I/O, monitor) spent blocked in socket/file I/O, or -1
+     * when no active time was accounted. Parked and other native time are left out: both are
+     * mostly idle pool, selector and acceptor threads.
+     */
+    double ioWaitShare() {
+        double[] totals = stateTotals();
+        double active = totals[CPU] + totals[IO] + totals[MONITOR];
+        return active > 0 ? totals[IO] / active : -1;
+    }
+
+    /** Triage score: an I/O-dominated profile is reported, but ranks below JVM-level faults. */
+    double score() {
+        double share = ioWaitShare();
+        if (share >= 0.75) return 2.0;
+        if (share >= 0.5) return 1.0;
+        return 0.0;
+    }
+
+    void printSection() {
+        if (!hasData()) {
+            System.out.println("[INFO] No I/O or thread-state events found. Record with settings=profile to capture jdk.SocketRead/Write and jdk.FileRead/Write above 10 ms.");
+            return;
+        }
+        long windowMillis = lastEventMillis > firstEventMillis ? lastEventMillis - firstEventMillis : 0;
+
+        printHistograms("Socket latency by endpoint (top 5 by blocked time):", socketByEndpoint, windowMillis);
+        printHistograms("File latency by path (top 5 by blocked time):", fileByPath, windowMillis);
+
+        if (!blockingStacks.isEmpty()) {
+            System.out.println("Top 5 blocking I/O call sites (application frame -> I/O entry):");
+            top(blockingStacks, 5).forEach(entry -> System.out.printf("  > %s: %d ops, %.1f ms blocked%n",
+                    entry.getKey(), entry.getValue().count, entry.getValue().totalMillis));
+        }
+
+        printThreadBreakdown();
+    }
+
+    private void printHistograms(String title, Map<String, LatencyHistogram> histograms, long windowMillis) {
+        if (histograms.isEmpty()) {
+            return;
+        }
+        System.out.println(title);
+        StringBuilder header = new StringBuilder();
+        for (String label : BUCKET_LABELS) {
+            header.append(String.format("%6s", label));
+        }
+        System.out.printf("  %-48s %7s %9s %9s %10s |%s (ms)%n", "Target", "Ops", "p50<=ms", "p99<=ms", "KB/s", header);
+        top(histograms, 5).forEach(entry -> {
+            LatencyHistogram h = entry.getValue();
+            StringBuilder row = new StringBuilder();
+            for (long bucket : h.buckets) {
+                row.append(String.format("%6d", bucket));
+            }
+            double kbPerSecond = windowMillis > 0 ? h.bytes / 1024.0 / (windowMillis / 1000.0) : 0.0;
+            System.out.printf("  %-48s %7d %9.1f %9.1f %10.1f |%s%n", abbreviate(entry.getKey(), 48), h.count,
+                    h.percentileUpperBound(0.50), h.percentileUpperBound(0.99), kbPerSecond, row);
+        });
+    }
+
+    private void printThreadBreakdown() {
+        long cpuPeriod = resolvePeriodMillis(executionSampleTypeId, DEFAULT_EXECUTION_SAMPLE_PERIOD_MS);
+        long nativePeriod = resolvePeriodMillis(nativeSampleTypeId, DEFAULT_NATIVE_SAMPLE_PERIOD_MS);
+        Map<String, double[]> millisByThread = new HashMap<>();
+        threads.forEach((name, t) -> millisByThread.put(name, stateMillis(t, cpuPeriod, nativePeriod)));
+
+        System.out.printf("Per-thread wall-clock breakdown (top 10 by accounted time; samples x %d ms CPU / %d ms native period,"
+                + " at most %d Java / %d native threads sampled per period):%n",
+                cpuPeriod, nativePeriod, JAVA_SAMPLES_PER_PERIOD, NATIVE_SAMPLES_PER_PERIOD);
+        System.out.printf("  %-36s %9s %7s %7s %7s %12s %8s %9s%n", "Thread", "Seen(ms)", "CPU%", "Native%", "I/O%",
+                "Parked/Wait%", "Monitor%", "Other%");
+        millisByThread.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<String, double[]> entry) -> accounted(entry.getValue())).reversed())
+                .limit(10)
+                .forEach(entry -> {
+                    ThreadTime t = threads.get(entry.getKey());
+                    double[] millis = entry.getValue();
+                    double accounted = accounted(millis);
+                    double seen = Math.max(t.lastSeenMillis - t.firstSeenMillis, accounted);
+                    double base = seen > 0 ? seen : 1;
+                    System.out.printf("  %-36s %9.0f %6.1f%% %6.1f%% %6.1f%% %11.1f%% %7.1f%% %8.1f%%%n",
+                            abbreviate(entry.getKey(), 36), seen,
+                            millis[CPU] * 100 / base, millis[NATIVE] * 100 / base, millis[IO] * 100 / base,
+                            millis[PARKED] * 100 / base, millis[MONITOR] * 100 / base,
+                            Math.max(seen - accounted, 0) * 100 / base);
+                });
+
+        double[] totals = stateTotals();
+        double sum = 0;
+        for (double value : totals) {
+            sum += value;
+        }
+        // Other native time (selector and accept loops) and parked time are dominated by idle
+        // threads, so parked only decides the verdict when nothing was running, blocked in I/O
+        // or queued on a monitor, and native never does.
+        double ioWait = totals[IO];
+        int dominant = CPU;
+        if (totals[CPU] + ioWait + totals[MONITOR] == 0) {
+            dominant = PARKED;
+        } else if (ioWait >= Math.max(totals[CPU], totals[MONITOR])) {
+            dominant = IO;
+        } else if (totals[MONITOR] >= totals[CPU]) {
+            dominant = MONITOR;
+        }
+        if (sum <= 0) {
+            return;
+        }
+        StringBuilder split = new StringBuilder();
+        for (int i = 0; i < totals.length; i++) {
+            split.append(String.format("%s %.1f%%%s", STATE_LABELS[i], totals[i] * 100 / sum, i < totals.length - 1 ? ", " : ""));
+        }
+        System.out.printf("[WALL CLOCK] All threads: %s of accounted time.%n", split);
+        double cappedShare = cappedPeriodShare(cpuPeriod);
+        if (cappedShare > 0) {
+            System.out.printf("[NOTE] %.0f%% of CPU sampling periods hit JFR's %d-thread cap, so CPU (and native) time is a lower bound"
+                    + " for the threads that were running; the verdict may understate CPU.%n", cappedShare * 100, JAVA_SAMPLES_PER_PERIOD);
+        }
+
+        switch (dominant) {
+            case IO -> System.out.println("[VERDICT] I/O-bound: threads mostly wait on socket/file reads, writes and connects. Adding threads helps only until the downstream saturates; cutting round trips, batching or caching raises throughput more.");
+            case MONITOR -> System.out.println("[VERDICT] Lock-bound: threads queue on monitors. Adding threads will lower throughput; shrink the critical sections first (see Section C).");
+            case PARKED -> System.out.println("[VERDICT] Mostly parked/waiting: workers are idle or starved by a pool or queue. Check pool sizing and upstream load before touching code.");
+            default -> System.out.println("[VERDICT] CPU-bound: threads are RUNNABLE on CPU. Adding threads beyond the core count will not raise throughput; optimize the Section A hotspots.");
+        }
+    }
+
+    /** Share of sampling periods with {@link #JAVA_SAMPLES_PER_PERIOD} or more execution samples. */
+    private double cappedPeriodShare(long cpuPeriod) {
+        Map<Long, int[]> samplesByPeriod = new HashMap<>();
+        executionSamplesByMillis.forEach((millis, count) ->
+                samplesByPeriod.computeIfAbsent(millis / cpuPeriod, k -> new int[1])[0] += count[0]);
+        if (samplesByPeriod.isEmpty()) {
+            return 0.0;
+        }
+        long capped = samplesByPeriod.values().stream().filter(count -> count[0] >= JAVA_SAMPLES_PER_PERIOD).count();
+        return (double) capped / samplesByPeriod.size();
+    }
+
+    private double[] stateTotals() {
+        long cpuPeriod = resolvePeriodMillis(executionSampleTypeId, DEFAULT_EXECUTION_SAMPLE_PERIOD_MS);
+        long nativePeriod = resolvePeriodMillis(nativeSampleTypeId, DEFAULT_NATIVE_SAMPLE_PERIOD_MS);
+        double[] totals = new double[5];
+        for (ThreadTime t : threads.values()) {
+            double[] millis = stateMillis(t, cpuPeriod, nativePeriod);
+            for (int state = 0; state < totals.length; state++) {
+                totals[state] += millis[state];
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * One thread's time per state. A thread blocked in a socket read is recorded both as an
+     * I/O event (above the threshold) and as native I/O samples, so I/O takes the larger of
+     * the two rather than their sum.
+     */
+    private static double[] stateMillis(ThreadTime t, long cpuPeriod, long nativePeriod) {
+        double[] millis = t.millis.clone();
+        millis[CPU] = t.samples[CPU] * (double) cpuPeriod;
+        millis[NATIVE] = t.samples[NATIVE] * (double) nativePeriod;
+        millis[IO] = Math.max(t.millis[IO], t.samples[IO] * (double) nativePeriod);
+        return millis;
+    }
+
+    /** True when one of the top native-sample frames is a socket/file read, write or connect. */
+    private static boolean isNativeIo(RecordedStackTrace stack) {
+        if (stack == null) {
+            return false;
+        }
+        List<RecordedFrame> frames = stack.getFrames();
+        for (int i = 0; i < Math.min(frames.size(), NATIVE_IO_FRAME_DEPTH); i++) {
+            RecordedMethod method = frames.get(i).getMethod();
+            if (method != null && method.getType() != null && IO_TYPES.contains(method.getType().getName())
+                    && IO_METHOD.matcher(method.getName()).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double accounted(double[] millis) {
+        double sum = 0;
+        for (double value : millis) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private void recordIo(RecordedEvent e, Map<String, LatencyHistogram> target, String key, long bytes) {
+        double ms = millis(e.getDuration());
+        target.computeIfAbsent(key, k -> new LatencyHistogram()).add(ms, bytes);
+        blockingStacks.computeIfAbsent(blockingSite(e.getStackTrace()), k -> new LatencyHistogram()).add(ms, bytes);
+        ThreadTime time = thread(e, null);
+        if (time != null) {
+            time.millis[IO] += ms;
+        }
+    }
+
+    private ThreadTime thread(RecordedEvent e, String field) {
+        RecordedThread thread = field != null && e.hasField(field) ? e.getThread(field) : e.getThread();
+        long start = e.getStartTime().toEpochMilli();
+        long end = e.getEndTime().toEpochMilli();
+        firstEventMillis = Math.min(firstEventMillis, start);
+        lastEventMillis = Math.max(lastEventMillis, end);
+        if (thread == null) {
+            return null;
+        }
+        String name = thread.getJavaName() != null ? thread.getJavaName() : thread.getOSName();
+        ThreadTime time = threads.computeIfAbsent(name != null ? name : "<unnamed>", k -> new ThreadTime());
+        time.seen(start, end);
+        return time;
+    }
+
+    private long resolvePeriodMillis(long eventTypeId, long fallback) {
+        String value = periodByEventTypeId.get(eventTypeId);
+        if (value == null) {
+            return fallback;
+        }
+        String[] parts = value.trim().split("\\s+");
+        try {
+            long amount = Long.parseLong(parts[0]);
+            String unit = parts.length > 1 ? parts[1] : "ms";
+            return switch (unit) {
+                case "s" -> amount * 1000;
+                case "us" -> Math.max(amount / 1000, 1);
+                case "ns" -> 1;
+                default -> amount;
+            };
+        } catch (NumberFormatException ex) {
+            return fallback; // e.g. "everyChunk" or "off"
+        }
+    }
+
+    private static String endpoint(RecordedEvent e) {
+        String host = e.hasField("host") ? e.getString("host") : null;
+        String address = e.hasField("address") ? e.getString("address") : null;
+        int port = e.hasField("port") ? e.getInt("port") : -1;
+        String name = host != null && !host.isEmpty() ? host : (address != null ? address : "<unknown>");
+        return port >= 0 ? name + ":" + port : name;
+    }
+
+    /**
+     * Names an I/O call site by the first application frame and the JDK I/O entry
+     * point below it, which is what a reviewer needs to find the blocking code.
+     */
+    private static String blockingSite(RecordedStackTrace stack) {
+        if (stack == null || stack.getFrames().isEmpty()) {
+            return "<no stack trace>";
+        }
+        List<RecordedFrame> frames = stack.getFrames();
+        String ioEntry = null;
+        for (RecordedFrame frame : frames) {
+            RecordedMethod method = frame.getMethod();
+            String typeName = method.getType().getName();
+            String methodName = typeName + "." + method.getName();
+            if (isJdkType(typeName)) {
+                ioEntry = methodName;
+                continue;
+            }
+            String line = frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "";
+            return methodName + line + (ioEntry != null ? " -> " + ioEntry : "");
+        }
+        return ioEntry != null ? ioEntry : "<jdk internal>";
+    }
+
+    private static boolean isJdkType(String typeName) {
+        return typeName.startsWith("java.") || typeName.startsWith("javax.") || typeName.startsWith("jdk.")
+                || typeName.startsWith("sun.") || typeName.startsWith("com.sun.");
+    }
+
+    private static Stream<Map.Entry<String, LatencyHistogram>> top(Map<String, LatencyHistogram> histograms, int limit) {
+        return histograms.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<String, LatencyHistogram> entry) -> entry.getValue().totalMillis).reversed())
+                .limit(limit);
+    }
+
+    private static double millis(Duration duration) {
+        return duration != null ? duration.toNanos() / 1_000_000.0 : 0.0;
+    }
+
+    private static String abbreviate(String value, int width) {
+        return value.length() <= width ? value : "..." + value.substring(value.length() - width + 3);
+    }
+}
@@ -3,14 +3,17 @@ package com.example.jvmhealth;
 import jdk.jfr.consumer.RecordedEvent;
 import jdk.jfr.consumer.RecordingFile;
 import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedFrame;
 import jdk.jfr.consumer.RecordedMethod;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.*;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
@@ -30,6 +33,11 @@ public class JvmHealthAnalyzer {
         long count = 0;
         double totalPauseMillis = 0.0;
         double maxPauseMillis = 0.0;
+        // Pause timeline, used to correlate GC with container throttling and request latency
+        final List<GcPause> pauses = new ArrayList<>();
+    }
+
+    record GcPause(long startEpochMillis, double pauseMillis) {
     }
 
     private static class JfrSummary {
@@ -45,11 +53,24 @@ public class JvmHealthAnalyzer {
         final Map<String, AtomicLong> allocationBytesByClass; // Top 5 classes by total allocated bytes
         final Map<String, AtomicLong> contendedMonitorCounts; // Top 5 monitors by contention/block events
 
+        // SPEC section A3: container limits and throttling
+        final ContainerAnalysis container;
+        // Off-heap view: NMT snapshots and JFR native memory events
+        final NativeMemoryAnalysis nativeMemory;
+        // JIT compilation, deoptimization and code cache
+        final CompilerAnalysis compiler;
+        // SPEC section A4: I/O latency and per-thread wall-clock split
+        final IoAnalysis io;
+        // async-profiler collapsed/JFR input: native frames and wall-clock samples
+        final AsyncProfilerAnalysis asyncProfiler;
+
         JfrSummary(long eventCount, GcStats gcStats, long totalAllocatedBytes, long cpuSamples, 
                    double cpuMaxPercent, long deadlockCount, 
                    Map<String, AtomicLong> cpuMethodSamples, 
                    Map<String, AtomicLong> allocationBytesByClass, 
-                   Map<String, AtomicLong> contendedMonitorCounts) {
+                   Map<String, AtomicLong> contendedMonitorCounts,
+                   ContainerAnalysis container, NativeMemoryAnalysis nativeMemory,
+                   CompilerAnalysis compiler, IoAnalysis io, AsyncProfilerAnalysis asyncProfiler) {
             this.eventCount = eventCount;
             this.gcStats = gcStats;
             this.totalAllocatedBytes = totalAllocatedBytes;
@@ -59,6 +80,11 @@ public class JvmHealthAnalyzer {
             this.cpuMethodSamples = cpuMethodSamples;
             this.allocationBytesByClass = allocationBytesByClass;
             this.contendedMonitorCounts = contendedMonitorCounts;
+            this.container = container;
+            this.nativeMemory = nativeMemory;
+            this.compiler = compiler;
+            this.io = io;
+            this.asyncProfiler = asyncProfiler;
         }
     }
 
@@ -68,13 +94,30 @@ public class JvmHealthAnalyzer {
     // --- Main Method and Utility ---
 
     public static void main(String[] args) throws Exception {
-        if (args.length < 1) {
-            System.err.println("Usage: java JvmHealthAnalyzer <jfr-file> [gc-log-file]");
+        // Positional arguments keep the original <jfr-file> [gc-log-file] contract; optional
+        // inputs for the extended sections are passed as --flag <path> pairs.
+        List<String> positional = new ArrayList<>();
+        List<Path> cgroupSnapshots = new ArrayList<>();
+        Path latencyCsvPath = null;
+        List<Path> nmtReports = new ArrayList<>();
+        List<String> asyncProfilerInputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--cgroup" -> cgroupSnapshots.add(Paths.get(optionValue(args, ++i, "--cgroup")));
+                case "--latency" -> latencyCsvPath = Paths.get(optionValue(args, ++i, "--latency"));
+                case "--nmt" -> nmtReports.add(Paths.get(optionValue(args, ++i, "--nmt")));
+                case "--async-profiler" -> asyncProfilerInputs.add(optionValue(args, ++i, "--async-profiler"));
+                default -> positional.add(args[i]);
+            }
+        }
+
+        if (positional.isEmpty()) {
+            printUsage();
             System.exit(1);
         }
 
-        Path jfrPath = Paths.get(args[0]);
-        Path gcLogPath = (args.length >= 2) ? Paths.get(args[1]) : null;
+        Path jfrPath = Paths.get(positional.get(0));
+        Path gcLogPath = (positional.size() >= 2) ? Paths.get(positional.get(1)) : null;
 
         if (!Files.exists(jfrPath)) {
             System.err.printf(
@@ -88,9 +131,47 @@ public class JvmHealthAnalyzer {
         if (gcLogPath != null) {
             System.out.println("GC log   : " + gcLogPath.toAbsolutePath());
         }
+        for (Path snapshot : cgroupSnapshots) {
+            System.out.println("cgroup   : " + snapshot.toAbsolutePath());
+        }
+        if (latencyCsvPath != null) {
+            System.out.println("Latency  : " + latencyCsvPath.toAbsolutePath());
+        }
+        for (Path nmtReport : nmtReports) {
+            System.out.println("NMT      : " + nmtReport.toAbsolutePath());
+        }
+        for (String input : asyncProfilerInputs) {
+            System.out.println("Profiler : " + input);
+        }
         System.out.println();
 
-        JfrSummary jfrSummary = analyzeJfr(jfrPath);
+        ContainerAnalysis container = new ContainerAnalysis();
+        NativeMemoryAnalysis nativeMemory = new NativeMemoryAnalysis();
+        CompilerAnalysis compiler = new CompilerAnalysis();
+        IoAnalysis io = new IoAnalysis();
+        AsyncProfilerAnalysis asyncProfiler = new AsyncProfilerAnalysis();
+        JfrSummary jfrSummary = analyzeJfr(jfrPath, asyncProfilerInputs, container, nativeMemory, compiler, io, asyncProfiler);
+        for (Path snapshot : cgroupSnapshots) {
+            if (Files.exists(snapshot)) {
+                container.addCgroupSnapshot(snapshot);
+            } else {
+                System.out.printf("[WARN] cgroup snapshot not found at '%s'; skipping.%n", snapshot.toAbsolutePath());
+            }
+        }
+        if (latencyCsvPath != null) {
+            if (Files.exists(latencyCsvPath)) {
+                container.loadLatencySamples(latencyCsvPath);
+            } else {
+                System.out.printf("[WARN] Latency CSV not found at '%s'; skipping.%n", latencyCsvPath.toAbsolutePath());
+            }
+        }
+        for (Path nmtReport : nmtReports) {
+            if (Files.exists(nmtReport)) {
+                nativeMemory.loadNmtReport(nmtReport);
+            } else {
+                System.out.printf("[WARN] NMT report not found at '%s'; skipping.%n", nmtReport.toAbsolutePath());
+            }
+        }
         GcLogSummary gcSummary = null;
         if (gcLogPath != null && Files.exists(gcLogPath)) {
             gcSummary = analyzeGcLog(gcLogPath);
@@ -103,9 +184,30 @@ public class JvmHealthAnalyzer {
         System.out.println("=== END OF REPORT ===");
     }
 
+    private static void printUsage() {
+        System.err.println("Usage: java JvmHealthAnalyzer <jfr-file> [gc-log-file] [options]");
+        System.err.println("Options:");
+        System.err.println("  --cgroup <dir|file>   cgroup v2 snapshot (cpu.stat, memory.events); repeat for snapshots over time");
+        System.err.println("  --latency <csv>       request latency samples as epochMillis,latencyMicros rows");
+        System.err.println("  --nmt <file>          jcmd VM.native_memory summary/detail (or .diff) output; may hold many dumps");
+        System.err.println("  --async-profiler [cpu:|wall:|alloc:|lock:]<file>");
+        System.err.println("                        async-profiler collapsed stacks or JFR output; repeat for several profiles");
+    }
+
+    private static String optionValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            System.err.printf("Missing value for %s.%n", option);
+            printUsage();
+            System.exit(1);
+        }
+        return args[index];
+    }
+
     // --- JFR Analysis (The Core Update) ---
 
-    private static JfrSummary analyzeJfr(Path jfrPath) throws IOException {
+    private static JfrSummary analyzeJfr(Path jfrPath, List<String> asyncProfilerInputs, ContainerAnalysis container,
+                                         NativeMemoryAnalysis nativeMemory, CompilerAnalysis compiler,
+                                         IoAnalysis io, AsyncProfilerAnalysis asyncProfiler) throws IOException {
         System.out.println("--- 1. JFR Event Collection ---");
         
         long eventCount = 0;
@@ -134,6 +236,7 @@ public class JvmHealthAnalyzer {
                             gcStats.count++;
                             gcStats.totalPauseMillis += ms;
                             gcStats.maxPauseMillis = Math.max(gcStats.maxPauseMillis, ms);
+                            gcStats.pauses.add(new GcPause(e.getStartTime().toEpochMilli(), ms));
                         }
                     }
                     case "jdk.ObjectAllocationInNewTLAB", "jdk.ObjectAllocationOutsideTLAB" -> {
@@ -142,7 +245,7 @@ public class JvmHealthAnalyzer {
                             totalAllocatedBytes += size;
                             
                             // SPEC Invariant: Track Top 5 Allocating Classes
-                            String className = e.getClass("type").getName();
+                            String className = e.getClass("objectClass").getName();
                             allocationBytesByClass.computeIfAbsent(className, k -> new AtomicLong(0)).addAndGet(size);
                         }
                     }
@@ -156,16 +259,20 @@ public class JvmHealthAnalyzer {
                     }
                     case "jdk.ExecutionSample" -> {
                         cpuSamples++;
+                        io.onThreadStateEvent(eventName, e);
                         // SPEC Invariant: Track Top 5 Methods by self-time/execution time
                         RecordedStackTrace stack = e.getStackTrace();
                         if (stack != null && stack.getFrames().size() > 0) {
-                            RecordedMethod topMethod = stack.getFrames().get(0).getMethod();
+                            RecordedFrame topFrame = stack.getFrames().get(0);
+                            RecordedMethod topMethod = topFrame.getMethod();
                             String methodName = topMethod.getType().getName() + "." + topMethod.getName();
                             cpuMethodSamples.computeIfAbsent(methodName, k -> new AtomicLong(0)).incrementAndGet();
+                            compiler.onExecutionSample(methodName, topFrame.getType());
                         }
                     }
                     case "jdk.ThreadPark", "jdk.ThreadSleep", "jdk.JavaMonitorWait", "jdk.JavaMonitorEnter" -> {
                         // Tracks contention events (used for Contended Monitors)
+                        io.onThreadStateEvent(eventName, e);
                         if (e.hasField("monitorClass")) {
                              String monitorName = e.getClass("monitorClass").getName();
                              contendedMonitorCounts.computeIfAbsent(monitorName, k -> new AtomicLong(0)).incrementAndGet();
@@ -176,16 +283,39 @@ public class JvmHealthAnalyzer {
                         deadlockCount++;
                     }
                     default -> {
-                        // ignore others for now
+                        // Container (SPEC A3), native memory and compiler events are handled by their own sections; ignore the rest.
+                        if (!container.onEvent(eventName, e) && !nativeMemory.onEvent(eventName, e)
+                                && !compiler.onEvent(eventName, e)) {
+                            io.onEvent(eventName, e);
+                        }
                     }
                 }
             }
         }
 
         System.out.printf("Total JFR Events Processed: %d%n", eventCount);
+
+        // async-profiler output usually covers the same run, so it replaces the JDK aggregates it has data for
+        for (String input : asyncProfilerInputs) {
+            Path path = Paths.get(AsyncProfilerAnalysis.pathOf(input));
+            if (Files.exists(path)) {
+                asyncProfiler.load(input);
+            } else {
+                System.out.printf("[WARN] async-profiler output not found at '%s'; skipping.%n", path.toAbsolutePath());
+            }
+        }
+        asyncProfiler.mergeInto(cpuMethodSamples, allocationBytesByClass, contendedMonitorCounts, compiler);
+        if (asyncProfiler.cpuSamples() > 0) {
+            cpuSamples = asyncProfiler.cpuSamples();
+        }
+        if (asyncProfiler.allocatedBytes() > 0) {
+            totalAllocatedBytes = asyncProfiler.allocatedBytes();
+        }
+
         System.out.println("-------------------------------------");
         return new JfrSummary(eventCount, gcStats, totalAllocatedBytes, cpuSamples, cpuMaxPercent, 
-                              deadlockCount, cpuMethodSamples, allocationBytesByClass, contendedMonitorCounts);
+                              deadlockCount, cpuMethodSamples, allocationBytesByClass, contendedMonitorCounts,
+                              container, nativeMemory, compiler, io, asyncProfiler);
     }
 
     // --- GC Log Analysis (Unchanged, basic parsing for confirmation) ---
@@ -242,10 +372,11 @@ public class JvmHealthAnalyzer {
                 .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(AtomicLong::get).reversed()))
                 .limit(5)
                 .forEach(entry -> 
-                    System.out.printf("  > %s: %d samples (%.1f%% of total)%n", 
+                    System.out.printf("  > %s: %d samples (%.1f%% of total) [%s]%n", 
                                       entry.getKey(), 
                                       entry.getValue().get(), 
-                                      (double)entry.getValue().get() / jfrSummary.cpuSamples * 100));
+                                      (double)entry.getValue().get() / jfrSummary.cpuSamples * 100,
+                                      jfrSummary.compiler.tierLabel(entry.getKey())));
             
             if (jfrSummary.cpuMaxPercent > 80.0) {
                  System.out.println("[HIGH] JVM CPU is severely stressed. **Action:** Investigate the methods above to reduce computational complexity or right-size the container.");
@@ -302,13 +433,37 @@ public class JvmHealthAnalyzer {
              System.out.println("[MEDIUM] High contention on monitors. **Action:** Investigate code using the locks above. Consider replacing synchronized blocks with `java.util.concurrent` primitives (e.g., `ReentrantLock`).");
         }
 
-        // --- D. HIGH-CONFIDENCE CONCLUSION (Senior Engineer Elimination) ---
-        System.out.println("\n--- D. HIGH-CONFIDENCE CONCLUSION ---");
+        // --- D. Container Resource Summary (SPEC A3: container-aware JVM) ---
+        System.out.println("\n--- D. Container CPU & Memory Limits ---");
+        jfrSummary.container.printSection(jfrSummary.gcStats.pauses);
+
+        // --- E. Native Memory Summary (Off-heap / NMT) ---
+        System.out.println("\n--- E. Native Memory & Off-Heap Summary ---");
+        jfrSummary.nativeMemory.printSection(jfrSummary.container.memoryLimitBytes());
+
+        // --- F. JIT Compiler Summary (why hot methods stay slow) ---
+        System.out.println("\n--- F. JIT Compilation & Deoptimization Summary ---");
+        jfrSummary.compiler.printSection(jfrSummary.cpuMethodSamples, jfrSummary.cpuSamples);
+
+        // --- G. I/O & Thread Wall-Clock Summary (SPEC A4: CPU-bound vs I/O-bound) ---
+        System.out.println("\n--- G. I/O Latency & Thread Wall-Clock Summary ---");
+        jfrSummary.io.printSection();
+
+        // --- H. async-profiler Summary (native frames and wall-clock time JDK JFR cannot see) ---
+        System.out.println("\n--- H. async-profiler Native & Wall-Clock Summary ---");
+        jfrSummary.asyncProfiler.printSection();
+
+        // --- HIGH-CONFIDENCE CONCLUSION (Senior Engineer Elimination) ---
+        System.out.println("\n--- HIGH-CONFIDENCE CONCLUSION ---");
         
         // Triage Logic: Assign scores based on severity to determine primary bottleneck.
         double cpuScore = 0;
         double gcScore = 0;
         double concurrencyScore = 0;
+        double quotaScore = jfrSummary.container.quotaScore();
+        double nativeScore = jfrSummary.nativeMemory.score(jfrSummary.container.memoryLimitHits());
+        double compilerScore = jfrSummary.compiler.score(jfrSummary.cpuMethodSamples);
+        double ioScore = jfrSummary.io.score();
 
         // 1. CPU Scoring
         if (jfrSummary.cpuMaxPercent > 95.0) cpuScore = 3.0;
@@ -325,7 +480,8 @@ public class JvmHealthAnalyzer {
         else if (!jfrSummary.contendedMonitorCounts.isEmpty() && jfrSummary.contendedMonitorCounts.values().stream().mapToLong(AtomicLong::get).max().orElse(0L) > 1000) concurrencyScore = 2.0; // High contention events
         else if (!jfrSummary.contendedMonitorCounts.isEmpty()) concurrencyScore = 1.0; // Some contention found
 
-        double maxScore = Math.max(cpuScore, Math.max(gcScore, concurrencyScore));
+        double maxScore = Math.max(Math.max(Math.max(cpuScore, quotaScore), compilerScore),
+                                   Math.max(Math.max(gcScore, nativeScore), Math.max(concurrencyScore, ioScore)));
         String primaryIssue = "No Critical Issues Found";
         String nextStep = "Maintain current JFR logging setup and rerun during peak load.";
 
@@ -333,12 +489,25 @@ public class JvmHealthAnalyzer {
             if (maxScore == concurrencyScore && concurrencyScore > 0) {
                 primaryIssue = "Concurrency/Lock Contention (Score: " + maxScore + ")";
                 nextStep = "IMMEDIATE CODE REVIEW: Focus strictly on the Top 5 Contended Monitors/Deadlocks. This is a synchronization fault.";
+            } else if (maxScore == quotaScore) {
+                // Checked before CPU: a throttled container shows high CPU because it is capped, not because code got slower.
+                primaryIssue = "Container CPU Quota Throttling (Score: " + maxScore + ")";
+                nextStep = "You are quota-bound, not code-bound. Raise the container CPU limit or reduce GC/JIT thread counts (Section D) before optimizing the Top 5 CPU methods.";
             } else if (maxScore == cpuScore) {
                 primaryIssue = "High CPU Load/Inefficiency (Score: " + maxScore + ")";
                 nextStep = "IMMEDIATE CODE REVIEW: Reduce computational time of the Top 5 CPU Hotspot methods identified in Section A.";
             } else if (maxScore == gcScore) {
                 primaryIssue = "Garbage Collection/Memory Pressure (Score: " + maxScore + ")";
                 nextStep = "IMMEDIATE CODE REVIEW: Examine the Top 5 Allocating Classes (Section B) to reduce object creation or tune GC pause goals.";
+            } else if (maxScore == nativeScore) {
+                primaryIssue = "Native/Off-Heap Memory Growth (Score: " + maxScore + ")";
+                nextStep = "Heap tuning will not help: the growth is outside -Xmx. Diff NMT detail snapshots for the categories flagged in Section E (" + String.join(", ", jfrSummary.nativeMemory.leakingCategories()) + ").";
+            } else if (maxScore == compilerScore) {
+                primaryIssue = "JIT Compilation/Code Cache (Score: " + maxScore + ")";
+                nextStep = "Hot code is not reaching C2 (see Section F): fix code cache exhaustion, compilation failures or deopt storms before rewriting the methods themselves.";
+            } else if (maxScore == ioScore) {
+                primaryIssue = String.format("I/O-Bound Workload (%.0f%% of active thread time in socket/file I/O) (Score: %s)", jfrSummary.io.ioWaitShare() * 100, maxScore);
+                nextStep = "Reduce round trips or latency on the endpoints and call sites listed in Section G; tune pool sizes against the downstream, not the CPU count.";
             }
         }
 
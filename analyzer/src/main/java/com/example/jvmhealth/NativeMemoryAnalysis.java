@@ -0,0 +1,404 @@
+package com.example.jvmhealth;
+
+import jdk.jfr.consumer.RecordedEvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Native memory (off-heap) analysis for the JVM Health Report.
+ * <p>
+ * Sources:
+ * <ul>
+ *   <li>{@code jcmd <pid> VM.native_memory summary|detail} output, including
+ *       {@code summary.diff}/{@code detail.diff} baseline comparisons. Files may hold many
+ *       concatenated dumps (e.g. an hourly cron job) and are parsed line by line in a
+ *       single pass; only the per-category series are kept in memory.</li>
+ *   <li>JFR {@code jdk.NativeMemoryUsage} (JDK 20+) and {@code jdk.DirectBufferStatistics}.</li>
+ * </ul>
+ * Each category's committed size is tracked over time and fitted with a least-squares
+ * slope; steady, well-correlated growth is flagged as a probable leak.
+ */
+final class NativeMemoryAnalysis {
+
+    /** Minimum fit quality (R^2) before a growth slope is called a leak. */
+    private static final double LEAK_MIN_R_SQUARED = 0.8;
+    /** Minimum growth (relative to the first sample) before a slope is called a leak. */
+    private static final double LEAK_MIN_GROWTH_RATIO = 0.10;
+    private static final long LEAK_MIN_GROWTH_BYTES = 1024L * 1024L;
+    private static final int LEAK_MIN_POINTS = 3;
+    private static final double HOUR_MILLIS = 3_600_000.0;
+
+    /** Categories the report always lists when present, even without growth. */
+    private static final Set<String> KEY_CATEGORIES =
+            Set.of("Thread", "Class", "Code", "GC", "Internal", "Other", "Direct buffers");
+
+    // "-    Thread (reserved=18519KB +12KB, committed=819KB +12KB)"
+    private static final Pattern CATEGORY_LINE = Pattern.compile(
+            "^-\\s+(.+?)\\s+\\(reserved=(\\d+)([KMG]?B)?(?:\\s+[+-]\\d+[KMG]?B?)?,\\s+committed=(\\d+)([KMG]?B)?(?:\\s+([+-]\\d+)([KMG]?B)?)?\\)");
+    // "Total: reserved=1400000KB +2000KB, committed=150000KB +3000KB"
+    private static final Pattern TOTAL_LINE = Pattern.compile(
+            "^Total:\\s+reserved=(\\d+)([KMG]?B)?(?:\\s+[+-]\\d+[KMG]?B?)?,\\s+committed=(\\d+)([KMG]?B)?(?:\\s+([+-]\\d+)([KMG]?B)?)?");
+    private static final Pattern EPOCH_SECONDS_LINE = Pattern.compile("^\\d{10}$");
+    // Cheap pre-check so detail-mode call-site lines never reach the (exception-driven) date parsers.
+    private static final Pattern TIMESTAMP_HINT =
+            Pattern.compile("^(\\d{4}-\\d{2}-\\d{2}[T ]|(Mon|Tue|Wed|Thu|Fri|Sat|Sun) )");
+    // date(1) pads single-digit days ("Oct  8"); runs of spaces are collapsed before this pattern is applied.
+    private static final DateTimeFormatter UNIX_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("EEE MMM d HH:mm:ss zzz yyyy", Locale.US);
+    private static final Pattern WHITESPACE_RUN = Pattern.compile("\\s+");
+
+    /**
+     * Committed-bytes time series for one category. Each point carries its epoch-millis
+     * timestamp (-1 when the source had none) and its snapshot ordinal.
+     */
+    private static final class Series {
+        long[] times = new long[16];
+        long[] ordinals = new long[16];
+        long[] committedBytes = new long[16];
+        int size = 0;
+        long baselineDeltaBytes = 0;
+        boolean hasBaselineDelta = false;
+
+        void add(long time, long ordinal, long bytes) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                committedBytes = Arrays.copyOf(committedBytes, size * 2);
+            }
+            times[size] = time;
+            ordinals[size] = ordinal;
+            committedBytes[size] = bytes;
+            size++;
+        }
+
+        long first() {
+            return committedBytes[0];
+        }
+
+        long last() {
+            return committedBytes[size - 1];
+        }
+
+        /**
+         * Returns {slope in bytes per time unit, R^2}. A {@code timeUnit} of 0 fits against
+         * snapshot ordinals instead of timestamps.
+         */
+        double[] fit(double timeUnit) {
+            if (size < 2) {
+                return new double[] {0.0, 0.0};
+            }
+            long[] xs = timeUnit > 0 ? times : ordinals;
+            double unit = timeUnit > 0 ? timeUnit : 1.0;
+            double meanX = 0;
+            double meanY = 0;
+            for (int i = 0; i < size; i++) {
+                meanX += (xs[i] - xs[0]) / unit;
+                meanY += committedBytes[i];
+            }
+            meanX /= size;
+            meanY /= size;
+            double sxx = 0;
+            double sxy = 0;
+            double syy = 0;
+            for (int i = 0; i < size; i++) {
+                double dx = (xs[i] - xs[0]) / unit - meanX;
+                double dy = committedBytes[i] - meanY;
+                sxx += dx * dx;
+                sxy += dx * dy;
+                syy += dy * dy;
+            }
+            if (sxx == 0) {
+                return new double[] {0.0, 0.0};
+            }
+            double slope = sxy / sxx;
+            double rSquared = syy == 0 ? 0.0 : (sxy * sxy) / (sxx * syy);
+            return new double[] {slope, rSquared};
+        }
+    }
+
+    private final Map<String, Series> nmtSeries = new LinkedHashMap<>();
+    private final Map<String, Series> jfrSeries = new LinkedHashMap<>();
+    private int nmtSnapshotCount = 0;
+    private boolean nmtTimestamped = true;
+    private long maxDirectBufferCapacity = -1;
+
+    /** Consumes one JFR event; returns {@code false} when it is not a native-memory event. */
+    boolean onEvent(String eventName, RecordedEvent e) {
+        switch (eventName) {
+            case "jdk.NativeMemoryUsage" -> {
+                if (e.hasField("type") && e.hasField("committed")) {
+                    series(jfrSeries, e.getString("type"))
+                            .add(e.getStartTime().toEpochMilli(), 0, e.getLong("committed"));
+                }
+            }
+            case "jdk.NativeMemoryUsageTotal" -> {
+                if (e.hasField("committed")) {
+                    series(jfrSeries, "Total").add(e.getStartTime().toEpochMilli(), 0, e.getLong("committed"));
+                }
+            }
+            case "jdk.DirectBufferStatistics" -> {
+                if (e.hasField("memoryUsed")) {
+                    series(jfrSeries, "Direct buffers").add(e.getStartTime().toEpochMilli(), 0, e.getLong("memoryUsed"));
+                }
+                if (e.hasField("totalCapacity")) {
+                    maxDirectBufferCapacity = Math.max(maxDirectBufferCapacity, e.getLong("totalCapacity"));
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Streams a file holding one or more {@code VM.native_memory} dumps. A line with a
+     * timestamp (ISO-8601, {@code date} default output, or {@code date +%s}) just before
+     * a dump dates that snapshot; without timestamps snapshots are spaced one unit apart.
+     */
+    void loadNmtReport(Path path) throws IOException {
+        int snapshotsBefore = nmtSnapshotCount;
+        long pendingTimestamp = -1;
+        long snapshotTime = -1;
+        boolean inCategories = false;
+
+        try (BufferedReader br = Files.newBufferedReader(path)) {
+            String raw;
+            while ((raw = br.readLine()) != null) {
+                String line = raw.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.startsWith("Native Memory Tracking:")) {
+                    nmtSnapshotCount++;
+                    snapshotTime = pendingTimestamp;
+                    if (snapshotTime < 0) {
+                        nmtTimestamped = false;
+                    }
+                    pendingTimestamp = -1;
+                    inCategories = true;
+                    continue;
+                }
+                if (!inCategories) {
+                    long parsed = parseTimestamp(line);
+                    if (parsed >= 0) {
+                        pendingTimestamp = parsed;
+                    }
+                    continue;
+                }
+                if (line.startsWith("Virtual memory map") || line.startsWith("Details:")) {
+                    // Detail sections repeat category names per call site; the summary above is enough.
+                    inCategories = false;
+                    continue;
+                }
+
+                Matcher total = TOTAL_LINE.matcher(line);
+                if (total.find()) {
+                    record(series(nmtSeries, "Total"), snapshotTime, nmtSnapshotCount, total.group(3), total.group(4),
+                            total.group(5), total.group(6));
+                    continue;
+                }
+                Matcher category = CATEGORY_LINE.matcher(line);
+                if (category.find()) {
+                    record(series(nmtSeries, category.group(1).trim()), snapshotTime, nmtSnapshotCount, category.group(4),
+                            category.group(5), category.group(6), category.group(7));
+                    continue;
+                }
+                long parsed = parseTimestamp(line);
+                if (parsed >= 0) {
+                    // Next dump in a concatenated file.
+                    pendingTimestamp = parsed;
+                    inCategories = false;
+                }
+            }
+        }
+
+        System.out.printf("Loaded %d NMT snapshot(s) from %s.%n", nmtSnapshotCount - snapshotsBefore, path);
+    }
+
+    private static void record(Series series, long time, long ordinal, String value, String unit,
+                               String delta, String deltaUnit) {
+        series.add(time, ordinal, toBytes(Long.parseLong(value), unit));
+        if (delta != null) {
+            series.baselineDeltaBytes = toBytes(Long.parseLong(delta), deltaUnit != null ? deltaUnit : unit);
+            series.hasBaselineDelta = true;
+        }
+    }
+
+    boolean hasData() {
+        return !nmtSeries.isEmpty() || !jfrSeries.isEmpty();
+    }
+
+    /** Categories whose committed size grew steadily enough to be flagged as a leak. */
+    List<String> leakingCategories() {
+        List<String> leaking = new ArrayList<>();
+        double nmtUnit = nmtTimestamped ? HOUR_MILLIS : 0.0;
+        nmtSeries.forEach((name, s) -> {
+            if (isLeak(name, s, nmtUnit)) {
+                leaking.add(name);
+            }
+        });
+        jfrSeries.forEach((name, s) -> {
+            if (isLeak(name, s, HOUR_MILLIS) && !leaking.contains(name)) {
+                leaking.add(name);
+            }
+        });
+        return leaking;
+    }
+
+    private static boolean isLeak(String name, Series s, double timeUnit) {
+        if ("Total".equals(name) || s.size < LEAK_MIN_POINTS) {
+            return false;
+        }
+        long delta = s.last() - s.first();
+        double[] fit = s.fit(timeUnit);
+        return fit[0] > 0
+                && fit[1] >= LEAK_MIN_R_SQUARED
+                && delta >= LEAK_MIN_GROWTH_BYTES
+                && delta >= s.first() * LEAK_MIN_GROWTH_RATIO;
+    }
+
+    /** Triage score: 2 for a steady native leak, 3 when the container also hit its memory limit. */
+    double score(long containerMemoryLimitHits) {
+        if (leakingCategories().isEmpty()) {
+            return 0.0;
+        }
+        return containerMemoryLimitHits > 0 ? 3.0 : 2.0;
+    }
+
+    /** Prints the native memory section; {@code memoryLimitBytes} is the container limit or -1. */
+    void printSection(long memoryLimitBytes) {
+        if (!hasData()) {
+            System.out.println("[INFO] No native memory data. Start the JVM with -XX:NativeMemoryTracking=summary and pass `jcmd <pid> VM.native_memory summary` output via --nmt, or record jdk.NativeMemoryUsage (JDK 20+).");
+            return;
+        }
+
+        if (!nmtSeries.isEmpty()) {
+            boolean dated = nmtTimestamped;
+            System.out.printf("[NMT] %d jcmd snapshot(s); growth is reported per %s.%n",
+                    nmtSnapshotCount, dated ? "hour" : "snapshot");
+            printTable(nmtSeries, dated ? HOUR_MILLIS : 0.0, dated ? "/h" : "/snap");
+            Series total = nmtSeries.get("Total");
+            if (total != null && memoryLimitBytes > 0) {
+                System.out.printf("[NMT] Total committed %s = %.1f%% of the %s container limit.%n",
+                        formatMb(total.last()), total.last() * 100.0 / memoryLimitBytes, formatMb(memoryLimitBytes));
+                if (total.last() > memoryLimitBytes * 0.9) {
+                    System.out.println("[HIGH] JVM native footprint is within 10% of the container limit. The OOM killer will fire before -Xmx is reached.");
+                }
+            }
+        }
+        if (!jfrSeries.isEmpty()) {
+            System.out.println("[JFR] Native memory from jdk.NativeMemoryUsage / jdk.DirectBufferStatistics; growth per hour.");
+            printTable(jfrSeries, HOUR_MILLIS, "/h");
+            if (maxDirectBufferCapacity >= 0) {
+                System.out.printf("[DIRECT] Peak direct ByteBuffer capacity %s.%n", formatMb(maxDirectBufferCapacity));
+            }
+        }
+
+        List<String> leakingCategories = leakingCategories();
+        if (leakingCategories.isEmpty()) {
+            System.out.println("[INFO] No native category shows steady growth.");
+        } else {
+            System.out.printf("[HIGH] Native memory leak suspected in: %s. **Action:** Track the category with `jcmd <pid> VM.native_memory baseline` and `detail.diff` to find the allocating call sites (Thread: thread count; Class: class loaders; Other: direct buffers / Unsafe).%n",
+                    String.join(", ", leakingCategories));
+        }
+    }
+
+    private void printTable(Map<String, Series> seriesByCategory, double timeUnit, String unitLabel) {
+        System.out.printf("  %-22s %12s %12s %12s %14s  %s%n", "Category", "First", "Last", "Delta", "Slope" + unitLabel, "Verdict");
+        seriesByCategory.entrySet().stream()
+                .filter(entry -> entry.getValue().size > 0)
+                .filter(entry -> KEY_CATEGORIES.contains(entry.getKey()) || "Total".equals(entry.getKey())
+                        || entry.getValue().last() != entry.getValue().first()
+                        || entry.getValue().last() >= LEAK_MIN_GROWTH_BYTES)
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<String, Series> entry) -> entry.getValue().last() - entry.getValue().first()).reversed())
+                .forEach(entry -> {
+                    String name = entry.getKey();
+                    Series s = entry.getValue();
+                    long delta = s.last() - s.first();
+                    double[] fit = s.fit(timeUnit);
+                    boolean leak = isLeak(name, s, timeUnit);
+                    String verdict = leak ? "LEAK? (R^2=" + String.format("%.2f", fit[1]) + ")"
+                            : (s.hasBaselineDelta ? "baseline " + formatSignedMb(s.baselineDeltaBytes) : "");
+                    System.out.printf("  %-22s %12s %12s %12s %14s  %s%n", name, formatMb(s.first()),
+                            formatMb(s.last()), formatSignedMb(delta), formatSignedMb((long) fit[0]), verdict);
+                });
+    }
+
+    private static Series series(Map<String, Series> target, String category) {
+        return target.computeIfAbsent(category, k -> new Series());
+    }
+
+    private static long parseTimestamp(String line) {
+        if (EPOCH_SECONDS_LINE.matcher(line).matches()) {
+            return Long.parseLong(line) * 1000L;
+        }
+        if (line.length() > 40 || !TIMESTAMP_HINT.matcher(line).find()) {
+            return -1;
+        }
+        if (Character.isDigit(line.charAt(0)) && line.charAt(10) == ' ') {
+            line = line.substring(0, 10) + 'T' + line.substring(11);
+        }
+        try {
+            return Instant.parse(line).toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+            // try the next format
+        }
+        try {
+            return OffsetDateTime.parse(line).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+            // try the next format
+        }
+        try {
+            return LocalDateTime.parse(line).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+            // try the next format
+        }
+        try {
+            return ZonedDateTime.parse(WHITESPACE_RUN.matcher(line).replaceAll(" "), UNIX_DATE_FORMAT).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+            return -1;
+        }
+    }
+
+    private static long toBytes(long value, String unit) {
+        if (unit == null) {
+            return value * 1024L; // jcmd defaults to KB
+        }
+        return switch (unit) {
+            case "B" -> value;
+            case "MB" -> value * 1024L * 1024L;
+            case "GB" -> value * 1024L * 1024L * 1024L;
+            default -> value * 1024L;
+        };
+    }
+
+    private static String formatMb(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static String formatSignedMb(long bytes) {
+        return String.format("%+.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
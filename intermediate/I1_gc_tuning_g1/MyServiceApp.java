@@ -1,7 +1,21 @@
 import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -10,29 +24,309 @@ import com.sun.net.httpserver.HttpServer;
 /**
  * Simple HTTP service that performs allocation-heavy work to make GC tuning
  * observable. Verbose server messages aid diagnostics during load tests.
+ * <p>
+ * {@code java MyServiceApp [baseline|optimized]}: {@code baseline} (default) is
+ * the original handler that allocates 10,000 x 1KB arrays per request on a fixed
+ * pool of 8 threads; {@code optimized} writes the same chunks into pooled
+ * off-heap slots on a virtual-thread executor. Both modes print throughput,
+ * bytes allocated per request and GC pause time every 10 seconds and on exit.
  */
 public class MyServiceApp {
+    private static final int CHUNKS = 10_000;
+    private static final int CHUNK_BYTES = 1024;
+
     public static void main(String[] args) throws IOException {
-        System.out.println("Starting MyServiceApp on port 8080...");
+        String mode = args.length > 0 ? args[0].toLowerCase(Locale.ROOT) : "baseline";
+        ServiceStats stats = new ServiceStats(mode);
         HttpServer server = HttpServer.create(new InetSocketAddress(8080), 0);
-        server.createContext("/work", new WorkHandler());
-        server.setExecutor(java.util.concurrent.Executors.newFixedThreadPool(8));
+        if ("baseline".equals(mode)) {
+            server.createContext("/work", new WorkHandler(stats));
+            server.setExecutor(Executors.newFixedThreadPool(8));
+        } else if ("optimized".equals(mode)) {
+            int slots = Runtime.getRuntime().availableProcessors();
+            server.createContext("/work", new PooledWorkHandler(new OffHeapSlotPool(slots, CHUNKS * CHUNK_BYTES), stats));
+            server.setExecutor(newHandlerExecutor(slots));
+            System.out.printf("Optimized mode: %d off-heap slots of %d KB, executor=%s%n", slots,
+                    CHUNKS * CHUNK_BYTES / 1024, virtualThreadsAvailable() ? "virtual threads" : "fixed pool (JDK < 21)");
+        } else {
+            System.err.println("Usage: java MyServiceApp [baseline|optimized]");
+            System.exit(2);
+            return;
+        }
+        System.out.println("Starting MyServiceApp on port 8080 in " + mode + " mode...");
         server.start();
+        stats.startReporter();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(0);
+            stats.printSummary();
+        }, "server-shutdown-hook"));
         System.out.println("Hit http://localhost:8080/work to generate load");
     }
 
     static class WorkHandler implements HttpHandler {
+        private final ServiceStats stats;
+
+        WorkHandler(ServiceStats stats) {
+            this.stats = stats;
+        }
+
         @Override
         public void handle(HttpExchange exchange) throws IOException {
+            long allocatedAtStart = stats.begin();
             // Simulated CPU + allocation work
             List<byte[]> data = new ArrayList<>();
-            for (int i = 0; i < 10_000; i++) {
-                data.add(new byte[1024]); // 1KB each
+            for (int i = 0; i < CHUNKS; i++) {
+                data.add(new byte[CHUNK_BYTES]); // 1KB each
             }
             String response = "OK, processed " + data.size() + " chunks\n";
             exchange.sendResponseHeaders(200, response.length());
             exchange.getResponseBody().write(response.getBytes());
             exchange.close();
+            stats.end(allocatedAtStart);
+        }
+    }
+
+    /**
+     * Same 10,000 x 1KB chunk workload, written into a pooled off-heap slot so the
+     * request path allocates nothing of its own; what remains per request is the
+     * HTTP server's exchange bookkeeping.
+     */
+    static class PooledWorkHandler implements HttpHandler {
+        private static final byte[] CHUNK_TEMPLATE = new byte[CHUNK_BYTES];
+        private static final byte[] RESPONSE = ("OK, processed " + CHUNKS + " chunks\n").getBytes(StandardCharsets.US_ASCII);
+
+        private final OffHeapSlotPool pool;
+        private final ServiceStats stats;
+
+        PooledWorkHandler(OffHeapSlotPool pool, ServiceStats stats) {
+            this.pool = pool;
+            this.stats = stats;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            long allocatedAtStart = stats.begin();
+            ByteBuffer slot;
+            try {
+                slot = pool.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            try {
+                for (int i = 0; i < CHUNKS; i++) {
+                    slot.put(CHUNK_TEMPLATE); // 1KB each, same bytes touched as the baseline
+                }
+            } finally {
+                pool.release(slot);
+            }
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            exchange.getResponseBody().write(RESPONSE);
+            exchange.close();
+            stats.end(allocatedAtStart);
+        }
+    }
+
+    /** Equal slices of one direct arena in randomly picked stripes; the semaphore caps in-flight requests at the slot count. */
+    static final class OffHeapSlotPool {
+        private final ArrayBlockingQueue<ByteBuffer>[] stripes;
+        private final Semaphore permits;
+
+        @SuppressWarnings("unchecked")
+        OffHeapSlotPool(int slots, int slotBytes) {
+            ByteBuffer arena = ByteBuffer.allocateDirect(Math.multiplyExact(slots, slotBytes));
+            stripes = (ArrayBlockingQueue<ByteBuffer>[]) new ArrayBlockingQueue<?>[slots];
+            for (int i = 0; i < slots; i++) {
+                stripes[i] = new ArrayBlockingQueue<>(slots);
+            }
+            for (int i = 0; i < slots; i++) {
+                arena.limit((i + 1) * slotBytes).position(i * slotBytes);
+                stripes[i].add(arena.slice());
+            }
+            permits = new Semaphore(slots);
+        }
+
+        ByteBuffer acquire() throws InterruptedException {
+            permits.acquire();
+            int home = homeStripe();
+            while (true) { // a permit guarantees a free slice; a concurrent release may briefly hide it
+                for (int i = 0; i < stripes.length; i++) {
+                    ByteBuffer slot = stripes[(home + i) % stripes.length].poll();
+                    if (slot != null) {
+                        return slot;
+                    }
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        void release(ByteBuffer slot) {
+            slot.clear();
+            stripes[homeStripe()].offer(slot);
+            permits.release();
+        }
+
+        private int homeStripe() {
+            return ThreadLocalRandom.current().nextInt(stripes.length);
+        }
+    }
+
+    /** Throughput, allocation per request and GC pause share for both modes, from the first request on. */
+    static final class ServiceStats {
+        private static final com.sun.management.ThreadMXBean THREADS =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        private final String mode;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder handlerBytes = new LongAdder();
+        private final LongAdder measuredRequests = new LongAdder();
+        private final LongAdder virtualRequests = new LongAdder();
+        private Map<Long, Long> carrierBaseline = Map.of();
+        private volatile boolean started;
+        private long startNanos;
+        private long startAllocated;
+        private long startGcMillis;
+
+        ServiceStats(String mode) {
+            this.mode = mode;
+        }
+
+        long begin() {
+            if (!started) {
+                markStart();
+            }
+            return THREADS.getCurrentThreadAllocatedBytes();
+        }
+
+        void end(long allocatedAtStart) {
+            requests.increment();
+            if (allocatedAtStart < 0) {
+                // -1 on a virtual thread: its allocation is charged to the carrier and summed at the end
+                if (THREADS.isThreadAllocatedMemoryEnabled()) {
+                    virtualRequests.increment();
+                }
+                return;
+            }
+            handlerBytes.add(THREADS.getCurrentThreadAllocatedBytes() - allocatedAtStart);
+            measuredRequests.increment();
+        }
+
+        private synchronized void markStart() {
+            if (!started) {
+                startNanos = System.nanoTime();
+                startAllocated = jvmAllocatedBytes();
+                startGcMillis = gcPauseMillis();
+                carrierBaseline = carrierAllocatedBytes();
+                started = true;
+            }
+        }
+
+        void startReporter() {
+            Thread reporter = new Thread(() -> {
+                long lastNanos = System.nanoTime();
+                long lastRequests = 0;
+                long lastAllocated = jvmAllocatedBytes();
+                long lastGcMillis = gcPauseMillis();
+                while (true) {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long nanos = System.nanoTime();
+                    long count = requests.sum();
+                    long allocated = jvmAllocatedBytes();
+                    long gcMillis = gcPauseMillis();
+                    System.out.println("[stats] " + format(count - lastRequests, nanos - lastNanos,
+                            allocated - lastAllocated, gcMillis - lastGcMillis));
+                    lastNanos = nanos;
+                    lastRequests = count;
+                    lastAllocated = allocated;
+                    lastGcMillis = gcMillis;
+                }
+            }, "service-stats");
+            reporter.setDaemon(true);
+            reporter.start();
+        }
+
+        synchronized void printSummary() {
+            if (!started) {
+                System.out.printf("[summary] mode=%s requests=0%n", mode);
+                return;
+            }
+            long count = requests.sum();
+            long measured = measuredRequests.sum() + virtualRequests.sum();
+            long bytes = handlerBytes.sum();
+            if (virtualRequests.sum() > 0) {
+                for (Map.Entry<Long, Long> carrier : carrierAllocatedBytes().entrySet()) {
+                    bytes += Math.max(0, carrier.getValue() - carrierBaseline.getOrDefault(carrier.getKey(), 0L));
+                }
+            }
+            String handler = measured > 0 ? String.format(Locale.ROOT, "%.1f", bytes / 1024.0 / measured) : "n/a";
+            System.out.printf(Locale.ROOT, "[summary] %s handler-KB/request=%s%n",
+                    format(count, System.nanoTime() - startNanos, jvmAllocatedBytes() - startAllocated,
+                            gcPauseMillis() - startGcMillis), handler);
+        }
+
+        private String format(long count, long elapsedNanos, long allocatedBytes, long gcMillis) {
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            return String.format(Locale.ROOT, "mode=%s requests=%d throughput=%.1f req/s jvm-KB/request=%s gc-pause=%.2f%% (%d ms)",
+                    mode, count, count / seconds,
+                    count > 0 ? String.format(Locale.ROOT, "%.1f", allocatedBytes / 1024.0 / count) : "n/a",
+                    100.0 * gcMillis / (seconds * 1000.0), gcMillis);
+        }
+
+        private static long jvmAllocatedBytes() {
+            long total = 0;
+            for (long bytes : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+                if (bytes > 0) {
+                    total += bytes;
+                }
+            }
+            return total;
+        }
+
+        /** Live carrier threads of the virtual-thread scheduler by id; none exist before JDK 21. */
+        private static Map<Long, Long> carrierAllocatedBytes() {
+            Map<Long, Long> bytes = new HashMap<>();
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if ("jdk.internal.misc.CarrierThread".equals(thread.getClass().getName())) {
+                    bytes.put(thread.getId(), THREADS.getThreadAllocatedBytes(thread.getId()));
+                }
+            }
+            return bytes;
+        }
+
+        /** Skips only the ZGC/Shenandoah "Cycles" beans; "G1 Concurrent GC" (JDK 20+) times Remark/Cleanup pauses. */
+        private static long gcPauseMillis() {
+            long total = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gc.getCollectionTime() > 0 && !gc.getName().endsWith("Cycles")) {
+                    total += gc.getCollectionTime();
+                }
+            }
+            return total;
+        }
+    }
+
+    /** Virtual-thread-per-task executor on JDK 21+, a core-sized fixed pool otherwise. */
+    private static ExecutorService newHandlerExecutor(int fallbackThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(fallbackThreads);
+        }
+    }
+
+    private static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
         }
     }
 }
@@ -1,11 +1,40 @@
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
 /**
  * Simulates a memory leak by storing 1KB byte arrays in a static map. Verbose
  * progress logging helps correlate heap growth with allocation milestones.
+ * <p>
+ * {@code java LeakLab} runs the leak. {@code java LeakLab compare [--keys n]
+ * [--capacity n] [--ops n] [--distribution uniform|zipf|both] [--zipf-s 0.99]
+ * [--policies a,b]} replays the same key stream against each retention policy
+ * and reports hit rate, throughput, retained heap, off-heap use and GC impact,
+ * turning the lab into a cache-sizing tool.
  */
 public class LeakLab {
     private static final java.util.Map<String, byte[]> LEAK_MAP = new java.util.HashMap<>();
+    private static final int PAYLOAD_BYTES = 1024;
 
     public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "compare".equals(args[0])) {
+            compare(parseOptions(args));
+            return;
+        }
         for (int i = 0; i < 10_000_000; i++) {
             LEAK_MAP.put("key-" + i, new byte[1024]); // 1KB per entry
             if (i % 100_000 == 0) {
@@ -14,4 +43,550 @@ public class LeakLab {
             }
         }
     }
+
+    /** Read-through cache of 1KB payloads; a returned array is only valid until the next call. */
+    interface PayloadCache {
+        byte[] get(String key);
+
+        void put(String key, byte[] payload);
+
+        int size();
+    }
+
+    /** The leak itself: every key ever seen stays reachable. */
+    static final class UnboundedCache implements PayloadCache {
+        private final Map<String, byte[]> map = new HashMap<>();
+
+        @Override
+        public byte[] get(String key) {
+            return map.get(key);
+        }
+
+        @Override
+        public void put(String key, byte[] payload) {
+            map.put(key, payload);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+    }
+
+    /** Size-bounded LRU on an access-ordered LinkedHashMap. */
+    static final class LruCache implements PayloadCache {
+        private final Map<String, byte[]> map;
+
+        LruCache(int capacity) {
+            map = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        @Override
+        public byte[] get(String key) {
+            return map.get(key);
+        }
+
+        @Override
+        public void put(String key, byte[] payload) {
+            map.put(key, payload);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+    }
+
+    /**
+     * W-TinyLFU-style cache: a 1% LRU admission window in front of a segmented LRU
+     * (20% probation, 80% protected). An entry leaving the window only enters the
+     * main space if a count-min sketch says it is used more often than the
+     * probation victim it would replace, so one-hit wonders cannot flush hot keys.
+     */
+    static final class TinyLfuCache implements PayloadCache {
+        private final int windowCapacity;
+        private final int mainCapacity;
+        private final int protectedCapacity;
+        private final LinkedHashMap<String, byte[]> window = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<String, byte[]> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<String, byte[]> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        private final FrequencySketch sketch;
+
+        TinyLfuCache(int capacity) {
+            windowCapacity = Math.max(1, capacity / 100);
+            mainCapacity = Math.max(1, capacity - windowCapacity);
+            protectedCapacity = mainCapacity * 8 / 10;
+            sketch = new FrequencySketch(capacity);
+        }
+
+        @Override
+        public byte[] get(String key) {
+            sketch.increment(key);
+            byte[] payload = window.get(key);
+            if (payload != null) {
+                return payload;
+            }
+            payload = protectedSegment.get(key);
+            if (payload != null) {
+                return payload;
+            }
+            payload = probation.remove(key);
+            if (payload != null) {
+                protectedSegment.put(key, payload);
+                if (protectedSegment.size() > protectedCapacity) {
+                    Map.Entry<String, byte[]> demoted = eldest(protectedSegment);
+                    protectedSegment.remove(demoted.getKey());
+                    probation.put(demoted.getKey(), demoted.getValue());
+                }
+            }
+            return payload;
+        }
+
+        @Override
+        public void put(String key, byte[] payload) {
+            window.put(key, payload);
+            if (window.size() <= windowCapacity) {
+                return;
+            }
+            Map.Entry<String, byte[]> candidate = eldest(window);
+            window.remove(candidate.getKey());
+            if (probation.size() + protectedSegment.size() < mainCapacity) {
+                probation.put(candidate.getKey(), candidate.getValue());
+                return;
+            }
+            LinkedHashMap<String, byte[]> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+            Map.Entry<String, byte[]> victim = eldest(victimSegment);
+            if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+                victimSegment.remove(victim.getKey());
+                probation.put(candidate.getKey(), candidate.getValue());
+            }
+        }
+
+        @Override
+        public int size() {
+            return window.size() + probation.size() + protectedSegment.size();
+        }
+
+        private static Map.Entry<String, byte[]> eldest(LinkedHashMap<String, byte[]> segment) {
+            Iterator<Map.Entry<String, byte[]>> iterator = segment.entrySet().iterator();
+            return iterator.next();
+        }
+    }
+
+    /** Count-min sketch of 4-bit counters, halved every 10 x capacity increments so old popularity decays. */
+    static final class FrequencySketch {
+        private static final int[] SEEDS = {0x97cb3127, 0xb0f3f8d5, 0x2f5e3c4b, 0xc2b2ae35};
+        private final byte[][] rows = new byte[SEEDS.length][];
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int width = Integer.highestOneBit(Math.max(64, capacity) - 1) << 1;
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = new byte[width];
+            }
+            mask = width - 1;
+            sampleSize = 10 * Math.max(64, capacity);
+        }
+
+        void increment(String key) {
+            int hash = key.hashCode();
+            for (int i = 0; i < rows.length; i++) {
+                int index = index(hash, i);
+                if (rows[i][index] < 15) {
+                    rows[i][index]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                for (byte[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] >>= 1;
+                    }
+                }
+                additions /= 2;
+            }
+        }
+
+        int frequency(String key) {
+            int hash = key.hashCode();
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < rows.length; i++) {
+                frequency = Math.min(frequency, rows[i][index(hash, i)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 16;
+            return h & mask;
+        }
+    }
+
+    /** Marks the key on a reference value so cleared entries can be purged from the map. */
+    interface KeyedReference {
+        String key();
+    }
+
+    static final class SoftValue extends SoftReference<byte[]> implements KeyedReference {
+        private final String key;
+
+        SoftValue(String key, byte[] payload, ReferenceQueue<byte[]> queue) {
+            super(payload, queue);
+            this.key = key;
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+    }
+
+    static final class WeakValue extends WeakReference<byte[]> implements KeyedReference {
+        private final String key;
+
+        WeakValue(String key, byte[] payload, ReferenceQueue<byte[]> queue) {
+            super(payload, queue);
+            this.key = key;
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+    }
+
+    /**
+     * Unbounded map with Soft- or WeakReference values: the GC decides what to
+     * evict. Cleared references are drained from a ReferenceQueue so the keys do
+     * not leak on their own.
+     */
+    static final class ReferenceValueCache implements PayloadCache {
+        private final Map<String, Reference<byte[]>> map = new HashMap<>();
+        private final ReferenceQueue<byte[]> queue = new ReferenceQueue<>();
+        private final boolean soft;
+
+        ReferenceValueCache(boolean soft) {
+            this.soft = soft;
+        }
+
+        @Override
+        public byte[] get(String key) {
+            purge();
+            Reference<byte[]> reference = map.get(key);
+            return reference != null ? reference.get() : null;
+        }
+
+        @Override
+        public void put(String key, byte[] payload) {
+            map.put(key, soft ? new SoftValue(key, payload, queue) : new WeakValue(key, payload, queue));
+        }
+
+        @Override
+        public int size() {
+            purge();
+            return map.size();
+        }
+
+        private void purge() {
+            Reference<? extends byte[]> cleared;
+            while ((cleared = queue.poll()) != null) {
+                map.remove(((KeyedReference) cleared).key(), cleared);
+            }
+        }
+    }
+
+    /**
+     * LRU index on the heap, payloads in fixed 1KB slots of one direct ByteBuffer.
+     * The heap only holds keys and slot numbers, so the collector never traces or
+     * copies the payload bytes; hits copy the slot into a reused scratch array.
+     */
+    static final class OffHeapLruCache implements PayloadCache {
+        private final int capacity;
+        private final ByteBuffer arena;
+        private final LinkedHashMap<String, Integer> index;
+        private final byte[] scratch = new byte[PAYLOAD_BYTES];
+        private int nextFreeSlot;
+
+        OffHeapLruCache(int capacity) {
+            this.capacity = capacity;
+            this.arena = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, PAYLOAD_BYTES));
+            this.index = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true);
+        }
+
+        @Override
+        public byte[] get(String key) {
+            Integer slot = index.get(key);
+            if (slot == null) {
+                return null;
+            }
+            arena.get(slot * PAYLOAD_BYTES, scratch);
+            return scratch;
+        }
+
+        @Override
+        public void put(String key, byte[] payload) {
+            int slot;
+            if (nextFreeSlot < capacity) {
+                slot = nextFreeSlot++;
+            } else {
+                Iterator<Map.Entry<String, Integer>> eldest = index.entrySet().iterator();
+                slot = eldest.next().getValue();
+                eldest.remove();
+            }
+            arena.put(slot * PAYLOAD_BYTES, payload);
+            index.put(key, slot);
+        }
+
+        @Override
+        public int size() {
+            return index.size();
+        }
+    }
+
+    enum Policy {
+        UNBOUNDED("unbounded", "static HashMap, the original leak", capacity -> new UnboundedCache()),
+        LRU("lru", "size-bounded LRU (LinkedHashMap)", LruCache::new),
+        TINYLFU("tinylfu", "W-TinyLFU-style admission", TinyLfuCache::new),
+        SOFT("soft", "SoftReference values", capacity -> new ReferenceValueCache(true)),
+        WEAK("weak", "WeakReference values", capacity -> new ReferenceValueCache(false)),
+        OFFHEAP("offheap", "LRU index, payloads in direct ByteBuffer", OffHeapLruCache::new);
+
+        final String id;
+        final String description;
+        final IntFunction<PayloadCache> factory;
+
+        Policy(String id, String description, IntFunction<PayloadCache> factory) {
+            this.id = id;
+            this.description = description;
+            this.factory = factory;
+        }
+
+        static Policy parse(String id) {
+            for (Policy policy : values()) {
+                if (policy.id.equalsIgnoreCase(id)) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException("Unknown policy '" + id + "'");
+        }
+    }
+
+    // --- Comparison driver ---
+
+    /** Seeded key stream; the same seed replays the identical sequence for every policy. */
+    static final class KeyStream {
+        private final SplittableRandom random;
+        private final int keys;
+        private final double[] zipfCdf;
+
+        KeyStream(int keys, double[] zipfCdf, long seed) {
+            this.random = new SplittableRandom(seed);
+            this.keys = keys;
+            this.zipfCdf = zipfCdf;
+        }
+
+        int next() {
+            if (zipfCdf == null) {
+                return random.nextInt(keys);
+            }
+            double u = random.nextDouble();
+            int low = 0;
+            int high = zipfCdf.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (zipfCdf[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        static double[] zipfCdf(int keys, double exponent) {
+            double[] cdf = new double[keys];
+            double sum = 0;
+            for (int rank = 0; rank < keys; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, exponent);
+                cdf[rank] = sum;
+            }
+            for (int rank = 0; rank < keys; rank++) {
+                cdf[rank] /= sum;
+            }
+            return cdf;
+        }
+    }
+
+    record Result(Policy policy, long operations, long hits, double seconds, double retainedHeapMb, double directMb,
+            long gcCount, long gcMillis, int entries, long corrupt, boolean outOfMemory) {
+    }
+
+    private static void compare(Map<String, String> options) throws InterruptedException {
+        int keys = Integer.parseInt(options.getOrDefault("keys", "300000"));
+        int capacity = Integer.parseInt(options.getOrDefault("capacity", "20000"));
+        long operations = Long.parseLong(options.getOrDefault("ops", "2000000"));
+        double exponent = Double.parseDouble(options.getOrDefault("zipf-s", "0.99"));
+        String distribution = options.getOrDefault("distribution", "both");
+        List<Policy> policies = new ArrayList<>();
+        for (String id : options.getOrDefault("policies", "unbounded,lru,tinylfu,soft,weak,offheap").split(",")) {
+            policies.add(Policy.parse(id.trim()));
+        }
+
+        System.out.printf("===> LeakLab cache comparison: keys=%d, capacity=%d entries (%.1f MB of payload), ops=%d, max heap=%d MB%n",
+                keys, capacity, capacity * (double) PAYLOAD_BYTES / (1024 * 1024), operations,
+                Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        System.out.println("Soft, weak and unbounded ignore the capacity; the GC (or the heap limit) decides their size.");
+        if (!"zipf".equals(distribution)) {
+            printResults("uniform", runAll(policies, keys, capacity, operations, null));
+        }
+        if (!"uniform".equals(distribution)) {
+            printResults(String.format(Locale.ROOT, "zipf s=%.2f", exponent),
+                    runAll(policies, keys, capacity, operations, KeyStream.zipfCdf(keys, exponent)));
+        }
+    }
+
+    private static List<Result> runAll(List<Policy> policies, int keys, int capacity, long operations, double[] zipfCdf)
+            throws InterruptedException {
+        List<Result> results = new ArrayList<>();
+        for (Policy policy : policies) {
+            System.out.println("Running " + policy.id + "...");
+            results.add(run(policy, keys, capacity, operations, zipfCdf));
+        }
+        return results;
+    }
+
+    private static Result run(Policy policy, int keys, int capacity, long operations, double[] zipfCdf)
+            throws InterruptedException {
+        long heapBefore = settledHeapUsed();
+        long directBefore = directMemoryUsed();
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+
+        PayloadCache cache = policy.factory.apply(capacity);
+        KeyStream stream = new KeyStream(keys, zipfCdf, 42L);
+        long hits = 0;
+        long corrupt = 0;
+        long done = 0;
+        boolean outOfMemory = false;
+        long start = System.nanoTime();
+        try {
+            for (; done < operations; done++) {
+                int id = stream.next();
+                String key = "key-" + id;
+                byte[] payload = cache.get(key);
+                if (payload != null) {
+                    hits++;
+                    if (readId(payload) != id) {
+                        corrupt++;
+                    }
+                } else {
+                    cache.put(key, load(id));
+                }
+            }
+        } catch (OutOfMemoryError e) {
+            outOfMemory = true;
+            cache = null; // drop the leaked entries so the driver can report and move on
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        long gcCountDelta = gcCount() - gcCountBefore;
+        long gcMillisDelta = gcMillis() - gcMillisBefore;
+
+        int entries = cache != null ? cache.size() : 0;
+        double retained = outOfMemory ? Runtime.getRuntime().maxMemory() : Math.max(0, settledHeapUsed() - heapBefore);
+        double direct = Math.max(0, directMemoryUsed() - directBefore);
+        Reference.reachabilityFence(cache);
+        return new Result(policy, done, hits, seconds, retained / (1024 * 1024), direct / (1024 * 1024),
+                gcCountDelta, gcMillisDelta, entries, corrupt, outOfMemory);
+    }
+
+    /** Stand-in for the backing store: a fresh 1KB payload tagged with its key id. */
+    private static byte[] load(int id) {
+        byte[] payload = new byte[PAYLOAD_BYTES]; // 1KB per entry
+        payload[0] = (byte) (id >>> 24);
+        payload[1] = (byte) (id >>> 16);
+        payload[2] = (byte) (id >>> 8);
+        payload[3] = (byte) id;
+        return payload;
+    }
+
+    private static int readId(byte[] payload) {
+        return (payload[0] & 0xff) << 24 | (payload[1] & 0xff) << 16 | (payload[2] & 0xff) << 8 | (payload[3] & 0xff);
+    }
+
+    private static void printResults(String distribution, List<Result> results) {
+        System.out.printf("%n===> Distribution: %s%n", distribution);
+        System.out.printf("%-10s %7s %10s %10s %9s %9s %9s %7s %9s  %s%n", "policy", "hit %", "Kops/s", "heap MB",
+                "direct MB", "entries", "GC count", "GC ms", "GC %", "notes");
+        for (Result r : results) {
+            String notes = r.outOfMemory() ? "OutOfMemoryError after " + r.operations() + " ops" : r.policy().description;
+            if (r.corrupt() > 0) {
+                notes += "; " + r.corrupt() + " corrupt hits";
+            }
+            System.out.printf(Locale.ROOT, "%-10s %6.1f%% %10.1f %10.1f %9.1f %9d %9d %7d %8.1f%%  %s%n", r.policy().id,
+                    r.operations() > 0 ? 100.0 * r.hits() / r.operations() : 0, r.operations() / r.seconds() / 1000.0,
+                    r.retainedHeapMb(), r.directMb(), r.entries(), r.gcCount(), r.gcMillis(),
+                    100.0 * r.gcMillis() / (r.seconds() * 1000.0), notes);
+        }
+        System.out.println("heap MB = live heap retained after a full GC; GC columns cover the run itself.");
+    }
+
+    private static long settledHeapUsed() throws InterruptedException {
+        System.gc();
+        Thread.sleep(100);
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long directMemoryUsed() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : pauseCollectors()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : pauseCollectors()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    /** All beans but the ZGC/Shenandoah "Cycles" ones; "G1 Concurrent GC" (JDK 20+) times the Remark/Cleanup pauses. */
+    private static List<GarbageCollectorMXBean> pauseCollectors() {
+        List<GarbageCollectorMXBean> collectors = new ArrayList<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!gc.getName().endsWith("Cycles")) {
+                collectors.add(gc);
+            }
+        }
+        return collectors;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --key value pairs after 'compare', got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
 }
@@ -1,28 +1,222 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
 
 /**
  * Demonstrates lock contention by synchronizing a heavy increment operation.
  * Verbose output reports final timing to aid benchmarking and tuning.
+ * <p>
+ * {@code java LockContentionLab [strategy]} runs the original demo (100 tasks of
+ * 1,000,000 increments on 16 threads) with the chosen counter strategy, default
+ * {@code coarse}. {@code java LockContentionLab sweep [--strategies a,b]
+ * [--seconds n] [--max-threads n] [--jfr-threshold 100us]} measures every
+ * strategy at 1..2x cores threads and reports throughput, the scaling curve and
+ * the time workers spent blocked according to JFR.
  */
 public class LockContentionLab {
-    private int counter = 0;
+    private static final int DEMO_TASKS = 100;
+    private static final int DEMO_BATCH = 1_000_000;
+    private static final int SWEEP_BATCH = 1_000;
+    private static final String WORKER_PREFIX = "counter-worker-";
+
+    /** A shared counter; {@code incrementBy} applies {@code n} increments the way the strategy would in real code. */
+    interface Counter {
+        void incrementBy(int n);
+
+        long value();
+    }
+
+    /** The original lab: one lock held for the whole batch, so threads take turns. */
+    static final class CoarseSynchronizedCounter implements Counter {
+        private long counter;
+
+        @Override
+        public synchronized void incrementBy(int n) {
+            // Heavy work inside synchronized method
+            for (int i = 0; i < n; i++) {
+                counter++;
+            }
+        }
+
+        @Override
+        public synchronized long value() {
+            return counter;
+        }
+    }
+
+    /** Monitor acquired per increment: the usual "just add synchronized" fix. */
+    static final class SynchronizedCounter implements Counter {
+        private long counter;
+
+        @Override
+        public void incrementBy(int n) {
+            for (int i = 0; i < n; i++) {
+                synchronized (this) {
+                    counter++;
+                }
+            }
+        }
+
+        @Override
+        public synchronized long value() {
+            return counter;
+        }
+    }
+
+    /** Explicit ReentrantLock per increment; contended waiters park instead of blocking on a monitor. */
+    static final class ReentrantLockCounter implements Counter {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long counter;
+
+        @Override
+        public void incrementBy(int n) {
+            for (int i = 0; i < n; i++) {
+                lock.lock();
+                try {
+                    counter++;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        @Override
+        public long value() {
+            lock.lock();
+            try {
+                return counter;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Lock-free CAS on a single AtomicLong; every increment still fights for one cache line. */
+    static final class AtomicCounter implements Counter {
+        private final AtomicLong counter = new AtomicLong();
+
+        @Override
+        public void incrementBy(int n) {
+            for (int i = 0; i < n; i++) {
+                counter.incrementAndGet();
+            }
+        }
+
+        @Override
+        public long value() {
+            return counter.get();
+        }
+    }
+
+    /** LongAdder spreads contended updates across cells and only sums them on read. */
+    static final class AdderCounter implements Counter {
+        private final LongAdder counter = new LongAdder();
+
+        @Override
+        public void incrementBy(int n) {
+            for (int i = 0; i < n; i++) {
+                counter.increment();
+            }
+        }
+
+        @Override
+        public long value() {
+            return counter.sum();
+        }
+    }
+
+    /** Each thread accumulates privately and publishes one shared update per batch. */
+    static final class LocalThenPublishCounter implements Counter {
+        private final AtomicLong counter = new AtomicLong();
+
+        @Override
+        public void incrementBy(int n) {
+            long local = 0;
+            for (int i = 0; i < n; i++) {
+                local++;
+            }
+            counter.addAndGet(local);
+        }
+
+        @Override
+        public long value() {
+            return counter.get();
+        }
+    }
+
+    enum Strategy {
+        COARSE("coarse", "synchronized around the whole batch (original lab)", CoarseSynchronizedCounter::new),
+        SYNCHRONIZED("synchronized", "synchronized per increment", SynchronizedCounter::new),
+        LOCK("lock", "ReentrantLock per increment", ReentrantLockCounter::new),
+        ATOMIC("atomic", "AtomicLong CAS per increment", AtomicCounter::new),
+        ADDER("adder", "LongAdder striping", AdderCounter::new),
+        LOCAL("local", "per-thread accumulate, publish once per batch", LocalThenPublishCounter::new);
+
+        final String id;
+        final String description;
+        final Supplier<Counter> factory;
+
+        Strategy(String id, String description, Supplier<Counter> factory) {
+            this.id = id;
+            this.description = description;
+            this.factory = factory;
+        }
 
-    public synchronized void increment() {
-        // Heavy work inside synchronized method
-        for (int i = 0; i < 1_000_000; i++) {
-            counter++;
+        static Strategy parse(String id) {
+            for (Strategy strategy : values()) {
+                if (strategy.id.equalsIgnoreCase(id)) {
+                    return strategy;
+                }
+            }
+            throw new IllegalArgumentException("Unknown strategy '" + id + "'; expected one of " + ids());
+        }
+
+        static String ids() {
+            List<String> ids = new ArrayList<>();
+            for (Strategy strategy : values()) {
+                ids.add(strategy.id);
+            }
+            return String.join(", ", ids);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "sweep".equals(args[0])) {
+            sweep(parseOptions(args));
+        } else {
+            demo(Strategy.parse(args.length > 0 ? args[0] : "coarse"));
         }
     }
 
-    public static void main(String[] args) {
-        LockContentionLab lab = new LockContentionLab();
+    /** The original demo: many large tasks on a fixed pool, ideal for taking thread dumps. */
+    private static void demo(Strategy strategy) {
+        Counter counter = strategy.factory.get();
         ExecutorService pool = Executors.newFixedThreadPool(16);
+        System.out.println("Strategy=" + strategy.id + " (" + strategy.description + ")");
 
         long start = System.currentTimeMillis();
-        for (int i = 0; i < 100; i++) {
-            pool.submit(lab::increment);
+        for (int i = 0; i < DEMO_TASKS; i++) {
+            pool.submit(() -> counter.incrementBy(DEMO_BATCH));
         }
         pool.shutdown();
         try {
@@ -31,6 +225,195 @@ public class LockContentionLab {
         }
 
         long end = System.currentTimeMillis();
-        System.out.println("Final counter=" + lab.counter + ", time=" + (end - start) + " ms");
+        System.out.println("Final counter=" + counter.value() + ", time=" + (end - start) + " ms");
+    }
+
+    // --- Thread-count sweep ---
+
+    /** Result of one strategy at one thread count. */
+    record Point(int threads, double opsPerSecond, double blockedMillis, long contentionEvents, double seconds) {
+    }
+
+    private static void sweep(Map<String, String> options) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxThreads = Integer.parseInt(options.getOrDefault("max-threads", String.valueOf(2 * cores)));
+        Duration measure = Duration.ofSeconds(Long.parseLong(options.getOrDefault("seconds", "3")));
+        Duration warmup = Duration.ofSeconds(1);
+        Duration threshold = parseThreshold(options.getOrDefault("jfr-threshold", "100us"));
+        List<Strategy> strategies = new ArrayList<>();
+        for (String id : options.getOrDefault("strategies", Strategy.ids()).split(",")) {
+            strategies.add(Strategy.parse(id.trim()));
+        }
+        List<Integer> threadCounts = threadCounts(cores, maxThreads);
+
+        System.out.printf("===> Counter strategy sweep: %d cores, threads=%s, %d s per point, batch=%d increments%n",
+                cores, threadCounts, measure.getSeconds(), SWEEP_BATCH);
+        System.out.printf("JFR contention = jdk.JavaMonitorEnter + jdk.ThreadPark on worker threads, events >= %d us%n",
+                threshold.toNanos() / 1_000);
+
+        Map<Strategy, List<Point>> results = new LinkedHashMap<>();
+        for (Strategy strategy : strategies) {
+            System.out.printf("%n===> %s (%s)%n", strategy.id, strategy.description);
+            runPoint(strategy, maxThreads, warmup, null); // JIT warmup at the highest contention level
+            List<Point> points = new ArrayList<>();
+            for (int threads : threadCounts) {
+                points.add(runPoint(strategy, threads, measure, threshold));
+            }
+            printStrategy(points);
+            results.put(strategy, points);
+        }
+        printMatrix(results, threadCounts);
+    }
+
+    /** Powers of two up to {@code maxThreads}, plus the core count and {@code maxThreads} itself. */
+    private static List<Integer> threadCounts(int cores, int maxThreads) {
+        TreeSet<Integer> counts = new TreeSet<>();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        if (cores <= maxThreads) {
+            counts.add(cores);
+        }
+        counts.add(maxThreads);
+        return new ArrayList<>(counts);
+    }
+
+    private static Point runPoint(Strategy strategy, int threads, Duration duration, Duration jfrThreshold)
+            throws InterruptedException, IOException {
+        Counter counter = strategy.factory.get();
+        long[] operations = new long[threads];
+        RunControl control = new RunControl();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            Thread worker = new Thread(() -> {
+                while (!control.go) {
+                    Thread.onSpinWait(); // spin rather than park so JFR only sees counter contention
+                }
+                long ops = 0;
+                while (!control.stop) {
+                    counter.incrementBy(SWEEP_BATCH);
+                    ops += SWEEP_BATCH;
+                }
+                operations[index] = ops;
+            }, WORKER_PREFIX + t);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        Recording recording = null;
+        if (jfrThreshold != null) {
+            recording = new Recording();
+            recording.enable("jdk.JavaMonitorEnter").withThreshold(jfrThreshold).withoutStackTrace();
+            recording.enable("jdk.ThreadPark").withThreshold(jfrThreshold).withoutStackTrace();
+            recording.start();
+        }
+        long start = System.nanoTime();
+        control.go = true;
+        Thread.sleep(duration.toMillis());
+        control.stop = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long total = 0;
+        for (long ops : operations) {
+            total += ops;
+        }
+        if (counter.value() != total) {
+            System.out.printf("[WARN] %s lost updates at %d threads: counter=%d, increments=%d%n",
+                    strategy.id, threads, counter.value(), total);
+        }
+        double blockedMillis = 0;
+        long events = 0;
+        if (recording != null) {
+            Path file = Files.createTempFile("lock-contention-", ".jfr");
+            try {
+                recording.stop();
+                recording.dump(file);
+                try (RecordingFile recordingFile = new RecordingFile(file)) {
+                    while (recordingFile.hasMoreEvents()) {
+                        RecordedEvent event = recordingFile.readEvent();
+                        RecordedThread thread = event.getThread();
+                        if (thread != null && thread.getJavaName() != null && thread.getJavaName().startsWith(WORKER_PREFIX)) {
+                            blockedMillis += event.getDuration().toNanos() / 1_000_000.0;
+                            events++;
+                        }
+                    }
+                }
+            } finally {
+                recording.close();
+                Files.deleteIfExists(file);
+            }
+        }
+        return new Point(threads, total / seconds, blockedMillis, events, seconds);
+    }
+
+    /** Start/stop signals for one measured point. */
+    private static final class RunControl {
+        volatile boolean go;
+        volatile boolean stop;
+    }
+
+    private static void printStrategy(List<Point> points) {
+        double single = points.get(0).opsPerSecond() / points.get(0).threads();
+        double best = 0;
+        for (Point point : points) {
+            best = Math.max(best, point.opsPerSecond());
+        }
+        System.out.printf("%8s %12s %9s %11s %14s %10s %9s  %s%n", "threads", "Mops/s", "speedup", "efficiency",
+                "JFR blocked ms", "blocked %", "events", "scaling");
+        for (Point point : points) {
+            double speedup = point.opsPerSecond() / single;
+            double blockedShare = 100.0 * point.blockedMillis() / (point.threads() * point.seconds() * 1000.0);
+            int bar = best > 0 ? (int) Math.round(30 * point.opsPerSecond() / best) : 0;
+            System.out.printf(Locale.ROOT, "%8d %12.2f %8.2fx %10.0f%% %14.1f %9.1f%% %9d  %s%n", point.threads(),
+                    point.opsPerSecond() / 1_000_000.0, speedup, 100.0 * speedup / point.threads(),
+                    point.blockedMillis(), blockedShare, point.contentionEvents(), "#".repeat(bar));
+        }
+    }
+
+    private static void printMatrix(Map<Strategy, List<Point>> results, List<Integer> threadCounts) {
+        System.out.printf("%n===> Throughput matrix (Mops/s)%n");
+        StringBuilder header = new StringBuilder(String.format("%-14s", "strategy"));
+        for (int threads : threadCounts) {
+            header.append(String.format("%10s", threads + "T"));
+        }
+        System.out.println(header);
+        for (Map.Entry<Strategy, List<Point>> entry : results.entrySet()) {
+            StringBuilder row = new StringBuilder(String.format("%-14s", entry.getKey().id));
+            for (Point point : entry.getValue()) {
+                row.append(String.format(Locale.ROOT, "%10.2f", point.opsPerSecond() / 1_000_000.0));
+            }
+            System.out.println(row);
+        }
+        System.out.println("Speedup is relative to the 1-thread run of the same strategy; efficiency = speedup / threads.");
+        System.out.println("coarse and local touch shared state once per batch, so the JIT folds their private loop;"
+                + " their numbers show what removing per-increment sharing buys, not raw increment speed.");
+    }
+
+    private static Duration parseThreshold(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.endsWith("ns")) {
+            return Duration.ofNanos(Long.parseLong(text.substring(0, text.length() - 2)));
+        } else if (text.endsWith("us")) {
+            return Duration.ofNanos(Long.parseLong(text.substring(0, text.length() - 2)) * 1_000);
+        } else if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        return Duration.ofMillis(Long.parseLong(text));
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --key value pairs after 'sweep', got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
     }
 }
@@ -15,6 +15,9 @@ echo "===> CI: Compiling intermediate labs..."
 echo "===> CI: Compiling advanced labs..."
 ./scripts/compile_advanced.sh
 
+echo "===> CI: Compiling tools..."
+./scripts/compile_tools.sh
+
 echo "===> CI: Building analyzer..."
 ./scripts/build_analyzer.sh
 
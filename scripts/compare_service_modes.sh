@@ -0,0 +1,89 @@
+#!/usr/bin/env bash
+# -----------------------------------------------------------------------------
+# compare_service_modes.sh
+# -----------------------------------------------------------------------------
+# Run a service lab in its baseline and optimized modes under the same
+# closed-loop load and print throughput, p99, GC pause share and bytes
+# allocated per request side by side.
+#
+# Usage:
+#   ./scripts/compare_service_modes.sh [i1|a2]
+#     i1 -> intermediate/I1_gc_tuning_g1/MyServiceApp      (port 8080, /work)
+#     a2 -> advanced/A2_jfr_profiling/MyServiceAppJfr      (port 8081, /heavy)
+#
+# Tunables (environment): CONCURRENCY (default 16), WARMUP (10s),
+# DURATION (60s), HEAP (1g), GC_FLAGS (-XX:+UseG1GC), OUT_DIR
+# (service-mode-comparison). GC logs, load generator output and per-request
+# latency CSVs for each mode are kept in OUT_DIR for the JVM Health Analyzer.
+#
+# All actions are traced (`set -x`) so the run can be debugged easily.
+set -euo pipefail
+set -x
+
+ROOT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+cd "$ROOT_DIR"
+
+LAB=${1:-i1}
+case "$LAB" in
+  i1) LAB_DIR=intermediate/I1_gc_tuning_g1; MAIN=MyServiceApp; PORT=8080; URL=http://localhost:8080/work ;;
+  a2) LAB_DIR=advanced/A2_jfr_profiling; MAIN=MyServiceAppJfr; PORT=8081; URL=http://localhost:8081/heavy ;;
+  *) echo "Usage: $0 [i1|a2]" >&2; exit 1 ;;
+esac
+
+CONCURRENCY=${CONCURRENCY:-16}
+WARMUP=${WARMUP:-10s}
+DURATION=${DURATION:-60s}
+HEAP=${HEAP:-1g}
+GC_FLAGS=${GC_FLAGS:--XX:+UseG1GC}
+OUT_DIR=${OUT_DIR:-service-mode-comparison}
+mkdir -p "$OUT_DIR"
+
+echo "===> Compiling $MAIN and the load generator..."
+javac "$LAB_DIR/$MAIN.java"
+javac tools/load_generator/LoadGenerator.java
+
+wait_for_port() {
+  for _ in $(seq 1 50); do
+    if (exec 3<>"/dev/tcp/127.0.0.1/$1") 2>/dev/null; then
+      return 0
+    fi
+    sleep 0.2
+  done
+  echo "Service did not open port $1" >&2
+  return 1
+}
+
+declare -A THROUGHPUT P99 GC_PAUSE KB_PER_REQUEST
+for MODE in baseline optimized; do
+  PREFIX="$OUT_DIR/$LAB-$MODE"
+  echo "===> Running $MAIN in $MODE mode"
+  # shellcheck disable=SC2086 # GC_FLAGS may carry several flags
+  java -Xms"$HEAP" -Xmx"$HEAP" $GC_FLAGS \
+    -Xlog:gc*:file="$PREFIX-gc.log":uptime,time,level,tags \
+    -cp "$LAB_DIR" "$MAIN" "$MODE" > "$PREFIX-service.log" 2>&1 &
+  SERVICE_PID=$!
+  wait_for_port "$PORT"
+
+  java -cp tools/load_generator LoadGenerator \
+    --url "$URL" --mode closed --concurrency "$CONCURRENCY" \
+    --warmup "$WARMUP" --duration "$DURATION" \
+    --latency-csv "$PREFIX-latency.csv" | tee "$PREFIX-loadgen.txt"
+
+  kill -TERM "$SERVICE_PID"
+  wait "$SERVICE_PID" || true
+
+  SUMMARY=$(grep '^\[summary\]' "$PREFIX-service.log" | tail -n 1)
+  THROUGHPUT[$MODE]=$(sed -n 's/^Throughput *: *\([0-9.]*\).*/\1/p' "$PREFIX-loadgen.txt")
+  P99[$MODE]=$(sed -n 's/.* p99=\([0-9.]*\).*/\1/p' "$PREFIX-loadgen.txt" | head -n 1)
+  GC_PAUSE[$MODE]=$(sed -n 's/.*gc-pause=\([0-9.]*\)%.*/\1/p' <<< "$SUMMARY")
+  KB_PER_REQUEST[$MODE]=$(sed -n 's/.*jvm-KB\/request=\([0-9.na\/]*\).*/\1/p' <<< "$SUMMARY")
+done
+
+set +x
+echo "===> $MAIN: baseline vs optimized (closed loop, $CONCURRENCY users, $DURATION measured, -Xmx$HEAP $GC_FLAGS)"
+printf '%-26s %14s %14s\n' "Metric" "baseline" "optimized"
+printf '%-26s %14s %14s\n' "Throughput (req/s)" "${THROUGHPUT[baseline]}" "${THROUGHPUT[optimized]}"
+printf '%-26s %14s %14s\n' "p99 latency (ms)" "${P99[baseline]}" "${P99[optimized]}"
+printf '%-26s %14s %14s\n' "GC pause (% of wall)" "${GC_PAUSE[baseline]}" "${GC_PAUSE[optimized]}"
+printf '%-26s %14s %14s\n' "Allocated KB / request" "${KB_PER_REQUEST[baseline]}" "${KB_PER_REQUEST[optimized]}"
+echo "Artifacts (GC logs, latency CSVs, load generator output) are in $OUT_DIR/."
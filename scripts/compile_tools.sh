@@ -0,0 +1,11 @@
+#!/usr/bin/env bash
+# Compile the shared lab tools (load generator) with verbose output for debugging.
+set -euo pipefail
+set -x
+
+ROOT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+cd "$ROOT_DIR/tools"
+
+echo "===> Compiling tools..."
+make all
+echo "Tools compiled successfully."
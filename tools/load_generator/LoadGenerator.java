@@ -0,0 +1,392 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reproducible HTTP load generator for the service labs
+ * ({@code intermediate/I1_gc_tuning_g1/MyServiceApp} on {@code /work} and
+ * {@code advanced/A2_jfr_profiling/MyServiceAppJfr} on {@code /heavy}).
+ * <p>
+ * Two modes are supported:
+ * <ul>
+ *   <li><b>closed</b> - a fixed number of concurrent users, each sending the next request
+ *       as soon as the previous one completes. Throughput is an output.</li>
+ *   <li><b>open</b> - requests are scheduled at a constant arrival rate regardless of how
+ *       fast the service answers. Latency is measured from each request's <i>intended</i>
+ *       start time, so a stalled service (e.g. during a GC pause) is charged for the
+ *       requests that queued behind it (coordinated-omission correction).</li>
+ * </ul>
+ * Latencies go into a log-linear histogram (about 3% precision) and, optionally, a CSV of
+ * {@code epochMillis,latencyMicros} rows that {@code JvmHealthAnalyzer --latency} can line
+ * up with GC pauses. With {@code --jfr-pid} the generator starts and stops a JFR recording
+ * on the target JVM via {@code jcmd} so both cover the same window.
+ * <p>
+ * Requests run on virtual threads when the JDK provides them (21+) and fall back to a
+ * cached platform-thread pool on JDK 17, keeping the file compilable with plain javac.
+ */
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+        // Utility class: do not instantiate.
+    }
+
+    /**
+     * Entry point. Run without arguments for usage.
+     *
+     * @param args {@code --key value} options
+     * @throws Exception when the run cannot be started or the CSV cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        if (options.containsKey("help")) {
+            printUsage();
+            return;
+        }
+
+        URI target = URI.create(options.getOrDefault("url", "http://localhost:8080/work"));
+        String mode = options.getOrDefault("mode", "closed");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "60s"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "10s"));
+        Duration timeout = parseDuration(options.getOrDefault("timeout", "10s"));
+        Path latencyCsv = options.containsKey("latency-csv") ? Paths.get(options.get("latency-csv")) : null;
+        String jfrPid = options.get("jfr-pid");
+        Path jfrFile = Paths.get(options.getOrDefault("jfr-file", "loadgen-window.jfr")).toAbsolutePath();
+
+        if (!"closed".equals(mode) && !"open".equals(mode)) {
+            System.err.println("--mode must be 'closed' or 'open'.");
+            printUsage();
+            System.exit(1);
+        }
+
+        System.out.println("===> LoadGenerator configuration");
+        System.out.printf("Target      : %s%n", target);
+        System.out.printf("Mode        : %s (%s)%n", mode,
+                "closed".equals(mode) ? concurrency + " concurrent users" : rate + " req/s constant arrival rate");
+        System.out.printf("Warmup      : %d s, measured duration: %d s, request timeout: %d s%n",
+                warmup.toSeconds(), duration.toSeconds(), timeout.toSeconds());
+        System.out.printf("Threads     : %s%n", virtualThreadsAvailable() ? "virtual (one per request)" : "platform cached pool (JDK < 21)");
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .executor(newRequestExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(target).timeout(timeout).GET().build();
+
+        if (!warmup.isZero()) {
+            System.out.println("===> Warmup phase (results discarded)");
+            run(client, request, mode, concurrency, rate, warmup, new RunStats(), null);
+        }
+
+        boolean jfrRecording = jfrPid != null
+                && jcmd(jfrPid, "JFR.start", "name=loadgen", "settings=profile", "filename=" + jfrFile);
+
+        RunStats stats = new RunStats();
+        System.out.println("===> Measured phase");
+        double wallSeconds;
+        try (BufferedWriter csv = latencyCsv != null ? Files.newBufferedWriter(latencyCsv) : null) {
+            if (csv != null) {
+                csv.write("epochMillis,latencyMicros,status");
+                csv.newLine();
+            }
+            long wallStart = System.nanoTime(); // excludes the jcmd round trips
+            run(client, request, mode, concurrency, rate, duration, stats, csv);
+            wallSeconds = (System.nanoTime() - wallStart) / 1_000_000_000.0;
+        } finally {
+            if (jfrRecording) {
+                jfrRecording = jcmd(jfrPid, "JFR.stop", "name=loadgen");
+            }
+        }
+
+        stats.print(wallSeconds, mode);
+        if (latencyCsv != null) {
+            System.out.printf("Per-request latencies written to %s (use with JvmHealthAnalyzer --latency).%n",
+                    latencyCsv.toAbsolutePath());
+        }
+        if (jfrRecording) {
+            System.out.printf("Service JFR recording for the same window: %s%n", jfrFile);
+        }
+        System.exit(0); // the HTTP client's selector thread is non-daemon on some JDKs
+    }
+
+    private static void run(HttpClient client, HttpRequest request, String mode, int concurrency, double rate,
+                            Duration duration, RunStats stats, BufferedWriter csv) throws InterruptedException {
+        ExecutorService executor = newRequestExecutor();
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + duration.toNanos();
+
+        if ("closed".equals(mode)) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < endNanos) {
+                        long begin = System.nanoTime();
+                        send(client, request, begin, begin, stats, csv);
+                    }
+                });
+            }
+        } else {
+            // Open model: the schedule is fixed up front; falling behind never delays the
+            // intended start of later requests, it only shows up as higher latency.
+            long intervalNanos = (long) (1_000_000_000.0 / rate);
+            long intended = startNanos;
+            while (intended < endNanos) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long intendedStart = intended;
+                executor.submit(() -> send(client, request, intendedStart, System.nanoTime(), stats, csv));
+                intended += intervalNanos;
+            }
+        }
+
+        executor.shutdown();
+        if (!executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS)) {
+            System.out.println("[WARN] Requests still in flight after the grace period; forcing shutdown.");
+            executor.shutdownNow();
+        }
+    }
+
+    private static void send(HttpClient client, HttpRequest request, long intendedStartNanos, long actualStartNanos,
+                             RunStats stats, BufferedWriter csv) {
+        int status;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            status = response.statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long end = System.nanoTime();
+        long latencyMicros = (end - intendedStartNanos) / 1_000;
+        long serviceMicros = (end - actualStartNanos) / 1_000;
+        stats.record(latencyMicros, serviceMicros, status);
+
+        if (csv != null) {
+            long intendedEpochMillis = System.currentTimeMillis() - (end - intendedStartNanos) / 1_000_000;
+            synchronized (csv) {
+                try {
+                    csv.write(intendedEpochMillis + "," + latencyMicros + "," + status);
+                    csv.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /** Aggregated results of one phase. */
+    private static final class RunStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LatencyHistogram serviceTime = new LatencyHistogram();
+        final AtomicLong ok = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+
+        void record(long latencyMicros, long serviceMicros, int status) {
+            latency.record(latencyMicros);
+            serviceTime.record(serviceMicros);
+            if (status >= 200 && status < 400) {
+                ok.incrementAndGet();
+            } else {
+                errors.incrementAndGet();
+            }
+        }
+
+        void print(double wallSeconds, String mode) {
+            long total = ok.get() + errors.get();
+            System.out.println("===> Results");
+            System.out.printf("Requests    : %d (ok=%d, errors=%d) in %.1f s%n", total, ok.get(), errors.get(), wallSeconds);
+            System.out.printf("Throughput  : %.1f req/s%n", total / wallSeconds);
+            System.out.println("Latency (ms)" + ("open".equals(mode) ? " from intended start, coordinated-omission corrected:" : ":"));
+            latency.printPercentiles();
+            if ("open".equals(mode)) {
+                System.out.println("Service time (ms) from actual send, NOT corrected (for comparison only):");
+                serviceTime.printPercentiles();
+            }
+            System.out.println("Latency distribution (ms):");
+            latency.printDistribution();
+        }
+    }
+
+    /**
+     * Lock-free log-linear histogram of microsecond values: values below 64 us are exact
+     * and every higher power-of-two range is split into 32 linear sub-buckets, giving
+     * about 3% relative precision without storing individual samples.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BUCKET_BITS = 6;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int MAGNITUDES = 40;
+
+        private final AtomicLongArray counts = new AtomicLongArray(MAGNITUDES * SUB_BUCKETS);
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long micros) {
+            long value = Math.max(micros, 0);
+            counts.incrementAndGet(indexOf(value));
+            total.incrementAndGet();
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        long count() {
+            return total.get();
+        }
+
+        long maxMicros() {
+            return max.get();
+        }
+
+        /** Value (in us) at the given percentile, reported as the bucket's upper bound. */
+        long percentile(double percentile) {
+            long n = total.get();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        void printPercentiles() {
+            System.out.printf("  p50=%.2f  p90=%.2f  p99=%.2f  p99.9=%.2f  p99.99=%.2f  max=%.2f  (n=%d)%n",
+                    percentile(50) / 1000.0, percentile(90) / 1000.0, percentile(99) / 1000.0,
+                    percentile(99.9) / 1000.0, percentile(99.99) / 1000.0, max.get() / 1000.0, total.get());
+        }
+
+        void printDistribution() {
+            double[] points = {0, 10, 25, 50, 75, 90, 95, 99, 99.5, 99.9, 99.99, 99.999, 100};
+            for (double point : points) {
+                System.out.printf("  %8.3f%%  %10.3f ms%n", point, (point == 100 ? max.get() : percentile(point)) / 1000.0);
+            }
+        }
+
+        private static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int magnitude = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+            if (magnitude >= MAGNITUDES) {
+                return MAGNITUDES * SUB_BUCKETS - 1;
+            }
+            int subBucket = (int) (value >>> magnitude) - SUB_BUCKETS / 2;
+            return magnitude * SUB_BUCKETS + SUB_BUCKETS / 2 + subBucket;
+        }
+
+        private static long upperBoundOf(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int magnitude = index / SUB_BUCKETS;
+            int subBucket = index % SUB_BUCKETS - SUB_BUCKETS / 2;
+            return ((long) (subBucket + SUB_BUCKETS / 2 + 1) << magnitude) - 1;
+        }
+    }
+
+    // --- Helpers ---
+
+    private static boolean jcmd(String pid, String... command) throws IOException, InterruptedException {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(Paths.get(System.getProperty("java.home"), "bin", "jcmd").toString());
+        cmd.add(pid);
+        cmd.addAll(List.of(command));
+        System.out.println("===> " + String.join(" ", cmd));
+        Process process = new ProcessBuilder(cmd).inheritIO().start();
+        if (process.waitFor() != 0) {
+            System.out.printf("[WARN] jcmd exited with %d; no service recording covers this window.%n", process.exitValue());
+            return false;
+        }
+        return true;
+    }
+
+    /** Virtual-thread-per-task executor on JDK 21+, cached platform threads otherwise. */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ("-h".equals(arg) || "--help".equals(arg)) {
+                options.put("help", "true");
+            } else if (arg.startsWith("--") && i + 1 < args.length) {
+                options.put(arg.substring(2), args[++i]);
+            } else {
+                System.err.println("Unrecognized argument: " + arg);
+                options.put("help", "true");
+            }
+        }
+        return options;
+    }
+
+    /** Parses durations such as {@code 500ms}, {@code 30s}, {@code 5m} (plain numbers are seconds). */
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java LoadGenerator [options]");
+        System.out.println("  --url <uri>           target endpoint (default http://localhost:8080/work)");
+        System.out.println("  --mode closed|open    fixed concurrency or constant arrival rate (default closed)");
+        System.out.println("  --concurrency <n>     concurrent users in closed mode (default 16)");
+        System.out.println("  --rate <req/s>        arrival rate in open mode (default 100)");
+        System.out.println("  --duration <d>        measured duration, e.g. 60s or 5m (default 60s)");
+        System.out.println("  --warmup <d>          discarded warmup duration (default 10s)");
+        System.out.println("  --timeout <d>         per-request timeout (default 10s)");
+        System.out.println("  --latency-csv <file>  write epochMillis,latencyMicros,status per request");
+        System.out.println("  --jfr-pid <pid>       start/stop a JFR recording on the service via jcmd around the measured phase");
+        System.out.println("  --jfr-file <file>     JFR output for --jfr-pid (default loadgen-window.jfr)");
+    }
+}